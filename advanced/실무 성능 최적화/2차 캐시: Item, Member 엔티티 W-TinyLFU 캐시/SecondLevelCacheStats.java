@@ -0,0 +1,70 @@
+package jpabook.jpashop.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 2차 캐시 리전별 지표
+ * - 적중/미스/저장 횟수는 하이버네이트 통계에서 가져온다. (generate_statistics: true 필요)
+ * - 퇴출 횟수는 하이버네이트가 모르므로 JCache 표준 통계 MBean(CacheEvictions)에서 가져온다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheStats {
+
+    private final EntityManagerFactory emf;
+
+    public List<RegionStats> findAll() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        List<RegionStats> result = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            result.add(new RegionStats(region,
+                    regionStatistics.getHitCount(),
+                    regionStatistics.getMissCount(),
+                    regionStatistics.getPutCount(),
+                    evictionCount(region),
+                    regionStatistics.getElementCountInMemory()));
+        }
+        return result;
+    }
+
+    private long evictionCount(String region) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Set<ObjectName> names = server.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,CacheManager=*,Cache=" + region), null);
+            long evictions = 0;
+            for (ObjectName name : names) {
+                evictions += (Long) server.getAttribute(name, "CacheEvictions");
+            }
+            return evictions;
+        } catch (Exception e) {
+            return -1;  // 통계가 꺼져 있으면 -1
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RegionStats {
+        private String region;
+        private long hitCount;
+        private long missCount;
+        private long putCount;
+        private long evictionCount;
+        private long elementCount;
+    }
+}
@@ -0,0 +1,31 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.cache.SecondLevelCacheStats;
+import jpabook.jpashop.cache.SecondLevelCacheStats.RegionStats;
+import jpabook.jpashop.repository.OrderSearchQueryRegistry;
+import jpabook.jpashop.repository.OrderSearchQueryRegistry.QueryShapeStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 성능 최적화용 캐시/카운터 지표 조회
+ */
+@RestController
+@RequiredArgsConstructor
+public class StatsApiController {
+    private final OrderSearchQueryRegistry orderSearchQueryRegistry;
+    private final SecondLevelCacheStats secondLevelCacheStats;
+
+    @GetMapping("/api/stats/order-search-queries")
+    public QueryShapeStats orderSearchQueries() {
+        return orderSearchQueryRegistry.getStats();
+    }
+
+    @GetMapping("/api/stats/second-level-cache")
+    public List<RegionStats> secondLevelCache() {
+        return secondLevelCacheStats.findAll();
+    }
+}
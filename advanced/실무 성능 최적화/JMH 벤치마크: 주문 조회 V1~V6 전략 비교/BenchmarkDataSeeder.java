@@ -0,0 +1,89 @@
+package jpabook.jpashop.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 벤치마크용 데이터 적재 (src/jmh/java)
+ * - 엔티티를 persist 하면 1M 건 적재에만 한참 걸리므로 JDBC 배치 insert 로 바로 넣는다.
+ * - 시드가 고정이라 매번 같은 데이터가 만들어져서 결과끼리 비교할 수 있다.
+ * - 주문당 주문상품 1~3개, 회원 1명당 주문 약 10개, 상품 1,000개
+ */
+public class BenchmarkDataSeeder {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int ITEM_COUNT = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random = new Random(42);
+
+    public BenchmarkDataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void seed(int orderCount) {
+        int memberCount = Math.max(1, orderCount / 10);
+        long id = 1;
+
+        long firstItemId = id;
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(new Object[]{id++, "BOOK" + i, 10_000 + random.nextInt(30_000), Integer.MAX_VALUE, "author" + i, "isbn" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into item (dtype, item_id, name, price, stock_quantity, author, isbn) values ('B', ?, ?, ?, ?, ?, ?)", items);
+
+        long firstMemberId = id;
+        String memberSql = "insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)";
+        List<Object[]> members = new ArrayList<>();
+        for (int i = 0; i < memberCount; i++) {
+            members.add(new Object[]{id++, "user" + i, "city" + (i % 100), "street" + i, String.format("%06d", i)});
+            if (members.size() >= BATCH_SIZE) {
+                flush(memberSql, members);
+            }
+        }
+        flush(memberSql, members);
+
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<Object[]> deliveries = new ArrayList<>();
+        List<Object[]> orders = new ArrayList<>();
+        List<Object[]> orderItems = new ArrayList<>();
+        for (int i = 0; i < orderCount; i++) {
+            long memberId = firstMemberId + random.nextInt(memberCount);
+            long deliveryId = id++;
+            long orderId = id++;
+            deliveries.add(new Object[]{deliveryId, "city" + (memberId % 100), "street" + memberId, "000000", "READY"});
+            orders.add(new Object[]{orderId, memberId, deliveryId, Timestamp.valueOf(start.plusMinutes(i)), "ORDER"});
+            int itemCount = 1 + random.nextInt(3);
+            for (int j = 0; j < itemCount; j++) {
+                orderItems.add(new Object[]{id++, firstItemId + random.nextInt(ITEM_COUNT), orderId, 10_000, 1 + random.nextInt(5)});
+            }
+            if (orders.size() >= BATCH_SIZE) {
+                flushOrders(deliveries, orders, orderItems);
+            }
+        }
+        flushOrders(deliveries, orders, orderItems);
+
+        // 이후 애플리케이션에서 persist 할 때 id 가 겹치지 않도록 (주문/배송/주문상품은 엔티티별 pooled 시퀀스를 씀)
+        for (String sequence : new String[]{"hibernate_sequence", "orders_seq", "delivery_seq", "order_item_seq"}) {
+            jdbcTemplate.execute("alter sequence " + sequence + " restart with " + id);
+        }
+    }
+
+    private void flushOrders(List<Object[]> deliveries, List<Object[]> orders, List<Object[]> orderItems) {
+        flush("insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)", deliveries);
+        flush("insert into orders (order_id, member_id, delivery_id, order_date, status) values (?, ?, ?, ?, ?)", orders);
+        flush("insert into order_item (order_item_id, item_id, order_id, order_price, count) values (?, ?, ?, ?, ?)", orderItems);
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+}
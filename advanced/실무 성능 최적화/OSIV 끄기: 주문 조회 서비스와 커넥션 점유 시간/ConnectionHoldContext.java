@@ -0,0 +1,63 @@
+package jpabook.jpashop.monitoring;
+
+/**
+ * 요청 하나 동안 커넥션 풀에서 빌린 커넥션 기록 (요청 스레드 기준 ThreadLocal)
+ * - 빌린 횟수, 빌리려고 기다린 시간, 빌린 뒤 돌려줄 때까지 잡고 있던 시간(점유 시간)
+ * - 값은 히카리 풀이 커넥션을 빌려줄 때/돌려받을 때 ConnectionHoldMetricsTrackerFactory 를 통해 채워짐
+ */
+public final class ConnectionHoldContext {
+
+    private static final ThreadLocal<ConnectionHoldContext> CURRENT = new ThreadLocal<>();
+
+    private int acquisitions;
+    private long acquireNanos;
+    private long holdMillis;
+    private long maxHoldMillis;
+
+    private ConnectionHoldContext() {
+    }
+
+    public static ConnectionHoldContext begin() {
+        ConnectionHoldContext context = new ConnectionHoldContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    static void recordAcquired(long elapsedNanos) {
+        ConnectionHoldContext context = CURRENT.get();
+        if (context == null) {
+            return;  // 요청 밖(스케줄러, 파이프라인 워커 등)의 커넥션은 세지 않음
+        }
+        context.acquisitions++;
+        context.acquireNanos += elapsedNanos;
+    }
+
+    static void recordReleased(long elapsedBorrowedMillis) {
+        ConnectionHoldContext context = CURRENT.get();
+        if (context == null) {
+            return;
+        }
+        context.holdMillis += elapsedBorrowedMillis;
+        context.maxHoldMillis = Math.max(context.maxHoldMillis, elapsedBorrowedMillis);
+    }
+
+    public int getAcquisitions() {
+        return acquisitions;
+    }
+
+    public long getAcquireNanos() {
+        return acquireNanos;
+    }
+
+    public long getHoldMillis() {
+        return holdMillis;
+    }
+
+    public long getMaxHoldMillis() {
+        return maxHoldMillis;
+    }
+}
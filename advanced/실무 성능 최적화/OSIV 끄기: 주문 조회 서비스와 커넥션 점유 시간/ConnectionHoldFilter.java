@@ -0,0 +1,56 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 요청 단위 커넥션 점유 시간 기록
+ * - 응답까지 다 쓴 뒤 URL 패턴별로 모으고, 한 번이라도 warn-threshold-ms 이상 잡고 있었으면 경고
+ * - 비동기 응답(CompletableFuture, StreamingResponseBody)은 다른 스레드에서 쓴 커넥션이 빠지므로 요청 스레드 몫만 나옴
+ */
+@Slf4j
+@Component
+public class ConnectionHoldFilter extends OncePerRequestFilter {
+
+    private final ConnectionHoldMetrics metrics;
+    private final long warnThresholdMillis;
+
+    public ConnectionHoldFilter(ConnectionHoldMetrics metrics,
+                                @Value("${jpashop.connection-hold.warn-threshold-ms:200}") long warnThresholdMillis) {
+        this.metrics = metrics;
+        this.warnThresholdMillis = warnThresholdMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ConnectionHoldContext context = ConnectionHoldContext.begin();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ConnectionHoldContext.end();
+        }
+        long requestMillis = (System.nanoTime() - start) / 1_000_000;
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return;  // 핸들러에 매핑되지 않은 요청(정적 리소스, 404 등)
+        }
+        boolean slow = context.getMaxHoldMillis() >= warnThresholdMillis;
+        metrics.record(pattern.toString(), context, requestMillis, slow);
+        if (slow) {
+            log.warn("[커넥션 점유] {} 에서 커넥션을 {}ms 잡고 있었음 (요청 {}ms, 커넥션 {}번 사용)",
+                    pattern, context.getMaxHoldMillis(), requestMillis, context.getAcquisitions());
+        }
+    }
+}
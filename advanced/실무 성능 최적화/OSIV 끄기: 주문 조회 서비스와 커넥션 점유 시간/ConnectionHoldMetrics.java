@@ -0,0 +1,78 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * URL 패턴별 커넥션 점유 지표
+ * - holdRatio: 요청 처리 시간 중 커넥션을 잡고 있던 비율
+ *   OSIV 를 켜면 응답을 다 쓸 때까지 잡고 있어서 1 에 가깝고, 끄면 트랜잭션 구간만큼으로 줄어듦
+ */
+@Component
+public class ConnectionHoldMetrics {
+
+    private final ConcurrentMap<String, PatternCounter> counters = new ConcurrentHashMap<>();
+
+    public void record(String pattern, ConnectionHoldContext context, long requestMillis, boolean slow) {
+        PatternCounter counter = counters.computeIfAbsent(pattern, p -> new PatternCounter());
+        counter.requests.increment();
+        counter.acquisitions.add(context.getAcquisitions());
+        counter.acquireNanos.add(context.getAcquireNanos());
+        counter.holdMillis.add(context.getHoldMillis());
+        counter.maxHoldMillis.accumulate(context.getMaxHoldMillis());
+        counter.requestMillis.add(requestMillis);
+        if (slow) {
+            counter.slowHolds.increment();
+        }
+    }
+
+    public List<PatternStats> findAll() {
+        return counters.entrySet().stream()
+                .map(e -> e.getValue().toStats(e.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    private static class PatternCounter {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder acquireNanos = new LongAdder();
+        private final LongAdder holdMillis = new LongAdder();
+        private final LongAccumulator maxHoldMillis = new LongAccumulator(Long::max, 0);
+        private final LongAdder requestMillis = new LongAdder();
+        private final LongAdder slowHolds = new LongAdder();
+
+        PatternStats toStats(String pattern) {
+            long requestCount = requests.sum();
+            long hold = holdMillis.sum();
+            long request = requestMillis.sum();
+            return new PatternStats(pattern, requestCount,
+                    requestCount == 0 ? 0 : (double) acquisitions.sum() / requestCount,
+                    requestCount == 0 ? 0 : acquireNanos.sum() / 1_000_000.0 / requestCount,
+                    requestCount == 0 ? 0 : (double) hold / requestCount,
+                    maxHoldMillis.get(),
+                    request == 0 ? 0 : (double) hold / request,
+                    slowHolds.sum());
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class PatternStats {
+        private String pattern;
+        private long requests;
+        private double avgAcquisitions;
+        private double avgAcquireMillis;
+        private double avgHoldMillis;
+        private long maxHoldMillis;
+        private double holdRatio;
+        private long slowHolds;
+    }
+}
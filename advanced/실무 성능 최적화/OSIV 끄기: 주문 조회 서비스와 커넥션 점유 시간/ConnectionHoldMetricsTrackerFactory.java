@@ -0,0 +1,28 @@
+package jpabook.jpashop.monitoring;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * 히카리 풀 이벤트를 ConnectionHoldContext 로 넘겨줌
+ * - 빌리기(recordConnectionAcquiredNanos)와 돌려주기(recordConnectionUsageMillis) 모두
+ *   커넥션을 쓰는 스레드에서 호출되므로 요청 스레드의 ThreadLocal 에 그대로 쌓임
+ */
+public class ConnectionHoldMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                ConnectionHoldContext.recordAcquired(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                ConnectionHoldContext.recordReleased(elapsedBorrowedMillis);
+            }
+        };
+    }
+}
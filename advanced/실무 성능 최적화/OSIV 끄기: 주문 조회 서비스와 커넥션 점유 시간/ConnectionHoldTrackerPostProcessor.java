@@ -0,0 +1,40 @@
+package jpabook.jpashop.monitoring;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jpabook.jpashop.datasource.Replica;
+import jpabook.jpashop.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 히카리 풀마다 ConnectionHoldMetricsTrackerFactory 를 붙임
+ * - 주 DB 풀(스프링 부트 자동 구성 또는 primaryDataSource 빈)
+ * - 복제본 풀은 빈이 아니라 ReplicaRoutingDataSource 안에서 만들어지므로 거기서 꺼내서 붙임
+ * - 풀은 첫 커넥션 요청 때 시작되므로 빈 초기화 시점에 붙이면 처음부터 기록됨
+ */
+@Component
+public class ConnectionHoldTrackerPostProcessor implements BeanPostProcessor {
+
+    private final ConnectionHoldMetricsTrackerFactory trackerFactory = new ConnectionHoldMetricsTrackerFactory();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource) {
+            attach((HikariDataSource) bean);
+        } else if (bean instanceof ReplicaRoutingDataSource) {
+            for (Replica replica : ((ReplicaRoutingDataSource) bean).getReplicas()) {
+                if (replica.getDataSource() instanceof HikariDataSource) {
+                    attach((HikariDataSource) replica.getDataSource());
+                }
+            }
+        }
+        return bean;
+    }
+
+    private void attach(HikariDataSource dataSource) {
+        // 다른 지표 라이브러리가 이미 붙어 있으면 건드리지 않음 (히카리는 한 번만 설정 가능)
+        if (dataSource.getMetricsTrackerFactory() == null && dataSource.getMetricRegistry() == null) {
+            dataSource.setMetricsTrackerFactory(trackerFactory);
+        }
+    }
+}
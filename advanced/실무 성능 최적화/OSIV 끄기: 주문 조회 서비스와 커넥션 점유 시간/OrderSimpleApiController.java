@@ -0,0 +1,128 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.*;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.service.query.OrderQueryService;
+import jpabook.jpashop.service.query.SimpleOrderDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ *
+ * xToOne(ManyToOne, OneToOne) 관계 최적화
+ * Order
+ * Order -> Member
+ * Order -> Delivery
+ *
+ * OSIV 끔: V1, V2 는 OrderQueryService 트랜잭션 안에서 로딩과 변환을 끝내고 받음
+ * V3 는 페치 조인으로 member, delivery 가 이미 로딩되어 있음
+ */
+@RestController
+@RequiredArgsConstructor
+public class OrderSimpleApiController {
+    private final OrderRepository orderRepository;
+    private final OrderQueryService orderQueryService;
+
+    @GetMapping("/api/v1/simple-orders")
+    public List<Order> ordersV1() {
+        // OSIV 를 껐으므로 Lazy 강제 초기화 대신 서비스에서 member, delivery 를 엔티티 그래프로 같이 로딩
+        return orderQueryService.findOrders(new OrderSearch());
+    }
+
+    @GetMapping("/api/v2/simple-orders")
+    public List<SimpleOrderDto> ordersV2() {
+        return orderQueryService.findSimpleOrderDtos(new OrderSearch());
+    }
+
+    @GetMapping("/api/v3/simple-orders")
+    public List<SimpleOrderDto> ordersV3() {
+        List<Order> orders = orderRepository.findAllWithMemberDelivery();
+        List<SimpleOrderDto> result = orders.stream()
+                .map(o -> new SimpleOrderDto(o))
+                .collect(toList());
+        return result;
+    }
+}
+
+//@RestController
+//@RequiredArgsConstructor
+//public class OrderSimpleApiController {
+//
+//    private final OrderRepository orderRepository;
+//    private final OrderSimpleQueryRepository orderSimpleQueryRepository; //의존관계 주입
+//
+//    /**
+//     * V1. 엔티티 직접 노출
+//     * - Hibernate5Module 모듈 등록, LAZY=null 처리
+//     * - 양방향 관계 문제 발생 -> @JsonIgnore
+//     */
+//    @GetMapping("/api/v1/simple-orders")
+//    public List<Order> ordersV1() {
+//        List<Order> all = orderRepository.findAllByString(new OrderSearch());
+//        for (Order order : all) {
+//            order.getMember().getName(); //Lazy 강제 초기화
+//            order.getDelivery().getAddress(); //Lazy 강제 초기화
+//        }
+//        return all;
+//    }
+//
+//    /**
+//     * V2. 엔티티를 조회해서 DTO로 변환(fetch join 사용X)
+//     * - 단점: 지연로딩으로 쿼리 N번 호출
+//     */
+//    @GetMapping("/api/v2/simple-orders")
+//    public List<SimpleOrderDto> ordersV2() {
+//        List<Order> orders = orderRepository.findAll();
+//        List<SimpleOrderDto> result = orders.stream()
+//                .map(o -> new SimpleOrderDto(o))
+//                .collect(toList());
+//
+//        return result;
+//    }
+//
+//    /**
+//     * V3. 엔티티를 조회해서 DTO로 변환(fetch join 사용O)
+//     * - fetch join으로 쿼리 1번 호출
+//     * 참고: fetch join에 대한 자세한 내용은 JPA 기본편 참고(정말 중요함)
+//     */
+//    @GetMapping("/api/v3/simple-orders")
+//    public List<SimpleOrderDto> ordersV3() {
+//        List<Order> orders = orderRepository.findAllWithMemberDelivery();
+//        List<SimpleOrderDto> result = orders.stream()
+//                .map(o -> new SimpleOrderDto(o))
+//                .collect(toList());
+//        return result;
+//    }
+//
+//    @GetMapping("/api/v4/simple-orders")
+//    public List<OrderSimpleQueryDto> ordersV4() {
+//        return orderSimpleQueryRepository.findOrderDtos();
+//    }
+//
+//
+//    @Data
+//    static class SimpleOrderDto {
+//
+//        private Long orderId;
+//        private String name;
+//        private LocalDateTime orderDate; //주문시간
+//        private OrderStatus orderStatus;
+//        private Address address;
+//
+//        public SimpleOrderDto(Order order) {
+//            orderId = order.getId();
+//            name = order.getMember().getName();
+//            orderDate = order.getOrderDate();
+//            orderStatus = order.getStatus();
+//            address = order.getDelivery().getAddress();
+//        }
+//    }
+//
+//}
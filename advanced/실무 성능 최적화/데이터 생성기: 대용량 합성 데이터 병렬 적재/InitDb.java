@@ -0,0 +1,26 @@
+package jpabook.jpashop;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 초기 데이터 적재
+ * - 예전에는 dbInit1, dbInit2 로 주문 2개만 넣었는데 용량 테스트에는 쓸모가 없어서 SyntheticDataGenerator 로 교체
+ * - jpashop.datagen.enabled=true 일 때만 실행 (양은 jpashop.datagen.* 설정으로 조절)
+ * - 스프링 라이프사이클 때문에 @PostConstruct 대신 애플리케이션이 다 뜬 뒤(ApplicationReadyEvent) 실행
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "jpashop.datagen.enabled", havingValue = "true")
+public class InitDb {
+
+    private final SyntheticDataGenerator syntheticDataGenerator;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() throws Exception {
+        syntheticDataGenerator.generate();
+    }
+}
@@ -0,0 +1,236 @@
+package jpabook.jpashop;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 용량 테스트용 합성 데이터 생성기 (회원, 상품(Book), 주문, 주문상품, 배송)
+ * - 시드 고정: 같은 설정이면 몇 번을 돌려도, 스레드가 몇 개든 같은 데이터가 만들어진다.
+ *   (id 범위마다 시드를 따로 쓰기 때문에 실행 순서와 무관)
+ * - 현실적인 쏠림: 소수의 회원이 주문을 많이 하고, 소수의 인기 상품이 많이 팔린다. 주문당 상품 수는 1~10개 (대부분 1~3개)
+ * - 영속성 컨텍스트를 거치지 않도록 StatelessSession 의 커넥션으로 JDBC 배치 insert
+ * - 주문 id 범위를 나눠 여러 스레드가 동시에 적재 (id 를 계산으로 정하므로 스레드끼리 조율할 필요 없음)
+ */
+@Slf4j
+@Component
+public class SyntheticDataGenerator {
+
+    private static final int MAX_ITEMS_PER_ORDER = 10;
+    private static final int RANGE_SIZE = 100_000;  // 스레드 하나가 한 번에 맡는 주문 수
+    private static final int COMMIT_INTERVAL = 10_000;  // 이만큼 주문마다 커밋해서 트랜잭션 크기 제한
+
+    private final SessionFactory sessionFactory;
+    private final long orders;
+    private final int members;
+    private final int items;
+    private final int threads;
+    private final long seed;
+    private final int batchSize;
+    private final double skew;
+
+    public SyntheticDataGenerator(EntityManagerFactory emf,
+                                  @Value("${jpashop.datagen.orders:10000}") long orders,
+                                  @Value("${jpashop.datagen.members:1000}") int members,
+                                  @Value("${jpashop.datagen.items:500}") int items,
+                                  @Value("${jpashop.datagen.threads:4}") int threads,
+                                  @Value("${jpashop.datagen.seed:42}") long seed,
+                                  @Value("${jpashop.datagen.batch-size:1000}") int batchSize,
+                                  @Value("${jpashop.datagen.skew:3.0}") double skew) {
+        this.sessionFactory = emf.unwrap(SessionFactory.class);
+        this.orders = orders;
+        this.members = members;
+        this.items = items;
+        this.threads = threads;
+        this.seed = seed;
+        this.batchSize = batchSize;
+        this.skew = skew;
+    }
+
+    public void generate() throws Exception {
+        long start = System.currentTimeMillis();
+        runInStatelessSession(this::insertMembers);
+        runInStatelessSession(this::insertItems);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long from = 0; from < orders; from += RANGE_SIZE) {
+                long rangeFrom = from;
+                long rangeTo = Math.min(from + RANGE_SIZE, orders);
+                futures.add(executor.submit(() -> {
+                    insertOrders(rangeFrom, rangeTo);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // 이후 애플리케이션에서 persist 할 때 id 가 겹치지 않도록 시퀀스를 가장 큰 id 뒤로 옮김
+        long nextId = Math.max(orders * MAX_ITEMS_PER_ORDER, Math.max(members, items)) + 1;
+        runInStatelessSession(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("alter sequence hibernate_sequence restart with " + nextId)) {
+                ps.execute();
+            }
+        });
+        log.info("합성 데이터 적재 완료: 회원 {}, 상품 {}, 주문 {} ({}ms)", members, items, orders, System.currentTimeMillis() - start);
+    }
+
+    private void insertMembers(Connection connection) throws SQLException {
+        Random random = new Random(seed);
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < members; i++) {
+                ps.setLong(1, i + 1);
+                ps.setString(2, "user" + (i + 1));
+                ps.setString(3, "city" + random.nextInt(100));
+                ps.setString(4, "street" + random.nextInt(10_000));
+                ps.setString(5, String.format("%06d", random.nextInt(1_000_000)));
+                addBatch(ps, i);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertItems(Connection connection) throws SQLException {
+        Random random = new Random(seed + 1);
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into item (dtype, item_id, name, price, stock_quantity, author, isbn) values ('B', ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < items; i++) {
+                ps.setLong(1, i + 1);
+                ps.setString(2, "BOOK" + (i + 1));
+                ps.setInt(3, (1 + random.nextInt(50)) * 1_000);
+                ps.setInt(4, 1_000_000);
+                ps.setString(5, "author" + random.nextInt(1_000));
+                ps.setString(6, "isbn" + (i + 1));
+                addBatch(ps, i);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * 주문 id 범위 [from, to) 적재
+     * - 주문 id = 배송 id = n + 1, 주문상품 id = n * MAX_ITEMS_PER_ORDER + j + 1
+     */
+    private void insertOrders(long from, long to) throws Exception {
+        Random random = new Random(seed ^ (from * 0x9E3779B97F4A7C15L));
+        LocalDateTime baseDate = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+        for (long chunkFrom = from; chunkFrom < to; chunkFrom += COMMIT_INTERVAL) {
+            long chunkTo = Math.min(chunkFrom + COMMIT_INTERVAL, to);
+            long rangeFrom = chunkFrom;
+            runInStatelessSession(connection -> {
+                try (PreparedStatement delivery = connection.prepareStatement(
+                        "insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)");
+                     PreparedStatement order = connection.prepareStatement(
+                             "insert into orders (order_id, member_id, delivery_id, order_date, status) values (?, ?, ?, ?, ?)");
+                     PreparedStatement orderItem = connection.prepareStatement(
+                             "insert into order_item (order_item_id, item_id, order_id, order_price, count) values (?, ?, ?, ?, ?)")) {
+                    int rows = 0;
+                    for (long n = rangeFrom; n < chunkTo; n++) {
+                        long orderId = n + 1;
+                        long memberId = skewed(random, members) + 1;
+
+                        delivery.setLong(1, orderId);
+                        delivery.setString(2, "city" + (memberId % 100));
+                        delivery.setString(3, "street" + memberId);
+                        delivery.setString(4, "000000");
+                        delivery.setString(5, random.nextInt(10) < 7 ? "COMP" : "READY");
+                        delivery.addBatch();
+
+                        order.setLong(1, orderId);
+                        order.setLong(2, memberId);
+                        order.setLong(3, orderId);
+                        order.setTimestamp(4, Timestamp.valueOf(baseDate.plusSeconds(n * 30 + random.nextInt(30))));
+                        order.setString(5, random.nextInt(20) == 0 ? "CANCEL" : "ORDER");
+                        order.addBatch();
+
+                        int itemCount = itemsPerOrder(random);
+                        for (int j = 0; j < itemCount; j++) {
+                            orderItem.setLong(1, n * MAX_ITEMS_PER_ORDER + j + 1);
+                            orderItem.setLong(2, skewed(random, items) + 1);
+                            orderItem.setLong(3, orderId);
+                            orderItem.setInt(4, (1 + random.nextInt(50)) * 1_000);
+                            orderItem.setInt(5, 1 + random.nextInt(5));
+                            orderItem.addBatch();
+                        }
+
+                        // 주문 수 하나로 세 배치를 같이 비움, 주문상품만 먼저 나가면 부모 주문이 없어 외래 키 위반
+                        if (++rows % batchSize == 0) {
+                            executeBatches(delivery, order, orderItem);
+                        }
+                    }
+                    executeBatches(delivery, order, orderItem);
+                }
+            });
+        }
+        log.info("주문 {} ~ {} 적재 완료", from + 1, to);
+    }
+
+    // 0 ~ bound-1 중 앞쪽(작은 번호)에 몰리는 값 (skew 가 클수록 더 쏠림, 1 이면 균등)
+    private int skewed(Random random, int bound) {
+        return (int) (bound * Math.pow(random.nextDouble(), skew));
+    }
+
+    // 기하 분포: 1개 45%, 2개 25%, 3개 14% ... 최대 MAX_ITEMS_PER_ORDER
+    private int itemsPerOrder(Random random) {
+        int count = 1;
+        while (count < MAX_ITEMS_PER_ORDER && random.nextDouble() < 0.55) {
+            count++;
+        }
+        return count;
+    }
+
+    private void addBatch(PreparedStatement ps, long row) throws SQLException {
+        ps.addBatch();
+        if ((row + 1) % batchSize == 0) {
+            ps.executeBatch();
+        }
+    }
+
+    // 외래 키 순서(배송 -> 주문 -> 주문상품)대로 넘겨야 함
+    private void executeBatches(PreparedStatement... statements) throws SQLException {
+        for (PreparedStatement ps : statements) {
+            ps.executeBatch();
+        }
+    }
+
+    private void runInStatelessSession(JdbcWork work) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                session.doWork(work::execute);
+                tx.commit();
+            } catch (RuntimeException e) {
+                tx.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface JdbcWork {
+        void execute(Connection connection) throws SQLException;
+    }
+}
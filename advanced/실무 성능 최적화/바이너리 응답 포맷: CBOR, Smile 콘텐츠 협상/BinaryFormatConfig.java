@@ -0,0 +1,33 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * 바이너리 응답 포맷 (서비스 간 호출용)
+ * - Accept: application/cbor -> CBOR, Accept: application/x-jackson-smile -> Smile, 그 외에는 지금처럼 JSON
+ * - 요청 본문도 같은 Content-Type 이면 같은 포맷으로 읽음
+ * - 스프링 MVC 도 라이브러리가 있으면 기본 CBOR/Smile 컨버터를 만들지만 스프링 부트의 Jackson 설정
+ *   (Hibernate5Module, 날짜 포맷 등)이 빠져 있어서 JSON 과 응답 모양이 달라짐
+ *   -> 부트가 설정한 Jackson2ObjectMapperBuilder 로 만든 컨버터 빈으로 기본 컨버터를 대체
+ * - 컨버터 순서상 JSON 이 앞에 있으므로 Accept 가 없거나 모든 타입을 받으면 JSON 으로 응답
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    // Jackson2ObjectMapperBuilder 빈은 prototype 이라 주입받을 때마다 새 빌더가 옴
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
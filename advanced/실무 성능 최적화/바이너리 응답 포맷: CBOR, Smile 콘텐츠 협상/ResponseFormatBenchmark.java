@@ -0,0 +1,143 @@
+package jpabook.jpashop.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.api.MemberApiController;
+import jpabook.jpashop.api.OrderApiController;
+import jpabook.jpashop.api.OrderSimpleApiController;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 응답 포맷별 인코딩 벤치마크 (JSON / CBOR / Smile)
+ * - 응답 객체(DTO)는 setUp 에서 한 번만 만들어 두고 직렬화 시간만 잰다. 조회 비용은 OrderApiBenchmark 참고
+ * - ObjectMapper 는 실제 응답에 쓰는 것(스프링 부트 JSON, BinaryFormatConfig 의 CBOR/Smile 컨버터)을 그대로 씀
+ * - 응답 크기와 주문 수는 Payload 지표로 결과 JSON 에 같이 기록됨 (bytes/us, orders/us)
+ *   측정 1번의 응답 크기 = bytes / 처리량, json 대비 비율은 format 파라미터끼리 나눠서 봄
+ * - ordersV2, simpleOrdersV2 는 findAllByString 이 최대 1000건이라 orderCount=100000 에서도 1000건만 직렬화
+ *   나머지는 전체 주문 (membersV2 는 회원 목록이라 orders 에 더하지 않음)
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseFormatBenchmark {
+
+    @Param({"1000", "100000"})
+    public int orderCount;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper mapper;
+
+    private List<?> ordersV2;
+    private List<?> ordersV5;
+    private List<OrderFlatDto> ordersV6;
+    private List<?> simpleOrdersV2;
+    private Object membersV2;
+
+    // 응답마다 들어 있는 주문 수 (ordersV6 는 주문상품 단위로 펼친 행이라 주문 아이디로 셈)
+    private int ordersV6Orders;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:format" + orderCount + format + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.org.hibernate.SQL=off")
+                .run();
+
+        new BenchmarkDataSeeder(context.getBean(JdbcTemplate.class)).seed(orderCount);
+
+        OrderApiController orderApiController = context.getBean(OrderApiController.class);
+        OrderSimpleApiController orderSimpleApiController = context.getBean(OrderSimpleApiController.class);
+        MemberApiController memberApiController = context.getBean(MemberApiController.class);
+        // OSIV 가 꺼져 있어서 컨트롤러가 돌려준 객체는 트랜잭션 밖에서 직렬화해도 지연 로딩이 없음
+        ordersV2 = orderApiController.ordersV2();
+        ordersV5 = orderApiController.ordersV5();
+        ordersV6 = orderApiController.ordersV6();
+        simpleOrdersV2 = orderSimpleApiController.ordersV2();
+        membersV2 = memberApiController.membersV2();
+        ordersV6Orders = (int) ordersV6.stream().map(OrderFlatDto::getOrderId).distinct().count();
+
+        mapper = mapperOf(format, context.getBean(ObjectMapper.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] ordersV2(Payload payload) throws Exception {
+        return encode(payload, ordersV2, ordersV2.size());
+    }
+
+    @Benchmark
+    public byte[] ordersV5(Payload payload) throws Exception {
+        return encode(payload, ordersV5, ordersV5.size());
+    }
+
+    @Benchmark
+    public byte[] ordersV6(Payload payload) throws Exception {
+        return encode(payload, ordersV6, ordersV6Orders);
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV2(Payload payload) throws Exception {
+        return encode(payload, simpleOrdersV2, simpleOrdersV2.size());
+    }
+
+    @Benchmark
+    public byte[] membersV2(Payload payload) throws Exception {
+        return encode(payload, membersV2, 0);
+    }
+
+    private ObjectMapper mapperOf(String format, ObjectMapper json) {
+        switch (format) {
+            case "json":
+                return json;
+            case "cbor":
+                return context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+            case "smile":
+                return context.getBean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper();
+            default:
+                throw new IllegalArgumentException("unknown format: " + format);
+        }
+    }
+
+    private byte[] encode(Payload payload, Object response, int orders) throws Exception {
+        byte[] bytes = mapper.writeValueAsBytes(response);
+        payload.bytes += bytes.length;
+        payload.orders += orders;
+        return bytes;
+    }
+
+    /**
+     * 측정 1번에 만든 응답 바이트 수와 주문 수 (결과 JSON 에 bytes, orders 지표로 같이 기록됨)
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Payload {
+        public long bytes;
+        public long orders;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            orders = 0;
+        }
+    }
+}
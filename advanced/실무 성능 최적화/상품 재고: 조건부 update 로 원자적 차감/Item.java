@@ -0,0 +1,60 @@
+package jpabook.jpashop.domain.item;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
+import javax.persistence.*;
+import java.util.ArrayList;
+import java.util.List;
+
+@BatchSize(size = 100)  // To-one(일대일) 관계는 이 위치에 배치 사이즈 옵션 적어줘야 함
+// 배치 페치 전에 2차 캐시부터 확인하므로, 캐시에 없는 id 만 in 쿼리로 조회됨
+// 재고가 바뀌는 엔티티라 READ_WRITE (수정 시 캐시도 같이 갱신)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")
+// 재고는 ItemRepository.removeStocks 가 update 문으로 직접 차감함
+// 기본 update 는 모든 컬럼을 쓰므로, 이름/가격만 바꿔도 엔티티에 들고 있던 옛날 재고로 덮어쓰게 됨 -> 바뀐 컬럼만 update
+@DynamicUpdate
+@Entity
+@Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+@DiscriminatorColumn(name = "dtype")
+@Getter @Setter
+public abstract class Item {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "item_id")
+    private Long id;
+
+    private String name;
+    private int price;
+    private int stockQuantity;
+
+    @ManyToMany(mappedBy = "items")
+    private List<Category> categories = new ArrayList<>();
+
+    //==비즈니스 로직==//
+    /**
+     * stock 증가
+     */
+    public void addStock(int quantity) {
+        this.stockQuantity += quantity;
+    }
+
+    /**
+     * stock 감소
+     * - 읽고 빼서 덮어쓰는 방식이라 동시 주문에 안전하지 않음, 주문은 ItemRepository.removeStocks 사용
+     */
+    public void removeStock(int quantity) {
+        int restStock = this.stockQuantity - quantity;
+        if (restStock < 0) {
+            throw new NotEnoughStockException("need more stock");
+        }
+        this.stockQuantity = restStock;
+    }
+}
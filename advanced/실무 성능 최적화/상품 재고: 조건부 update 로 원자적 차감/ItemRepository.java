@@ -0,0 +1,105 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Repository
+@RequiredArgsConstructor
+public class ItemRepository {
+
+    private final EntityManager em;
+
+    public void save(Item item) {
+        if (item.getId() == null) {
+            em.persist(item);
+        } else {
+            em.merge(item);
+        }
+    }
+
+    public Item findOne(Long id) {
+        return em.find(Item.class, id);
+    }
+
+    public List<Item> findAll() {
+        return em.createQuery("select i from Item i", Item.class)
+                .getResultList();
+    }
+
+    /**
+     * 상품별 재고 일괄 증가 (키: 상품 id, 값: 늘릴 수량)
+     * - 엔티티를 읽지 않고 현재 값에 더하는 update 를 JDBC 배치 1번으로 실행
+     * - 상품 id 순서로 update 해서 다른 트랜잭션과 락 순서가 엇갈리지 않게 함
+     * - 이미 영속성 컨텍스트에 올라온 상품은 갱신되지 않으므로 호출하는 쪽에서 맞춰줘야 함 (2차 캐시는 커밋 후 비움)
+     */
+    public void addStocks(Map<Long, Integer> quantities) {
+        executeStockUpdate("update item set stock_quantity = stock_quantity + ? where item_id = ?", quantities, false);
+    }
+
+    /**
+     * 상품별 재고 일괄 차감 (키: 상품 id, 값: 줄일 수량)
+     * - Item.removeStock 은 읽고 -> 빼고 -> 변경 감지로 덮어써서, 같은 상품에 주문이 몰리면 갱신이 유실되거나 비관적 락으로 줄을 서야 함
+     * - 여기서는 "남은 재고가 충분할 때만 빼라"를 update 1문장으로 DB 에 맡기고 영향받은 행 수만 확인
+     *   update item set stock_quantity = stock_quantity - ? where item_id = ? and stock_quantity >= ?
+     * - 여러 상품 주문은 상품 id 순서로 행 락을 잡아서 deadlock 이 생기지 않음
+     * - 한 상품이라도 0행이면 NotEnoughStockException (트랜잭션 롤백으로 앞서 뺀 상품도 원복)
+     */
+    public void removeStocks(Map<Long, Integer> quantities) {
+        List<Long> itemIds = new ArrayList<>(new TreeMap<>(quantities).keySet());
+        int[] updated = executeStockUpdate(
+                "update item set stock_quantity = stock_quantity - ? where item_id = ? and stock_quantity >= ?", quantities, true);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new NotEnoughStockException("need more stock. itemId=" + itemIds.get(i));
+            }
+        }
+    }
+
+    // conditional 이면 세 번째 파라미터(남은 재고 조건)에도 같은 수량을 바인딩
+    private int[] executeStockUpdate(String sql, Map<Long, Integer> quantities, boolean conditional) {
+        if (quantities.isEmpty()) {
+            return new int[0];
+        }
+        Map<Long, Integer> ordered = new TreeMap<>(quantities);
+        int[] updated = em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (Map.Entry<Long, Integer> entry : ordered.entrySet()) {
+                    ps.setInt(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                    if (conditional) {
+                        ps.setInt(3, entry.getValue());
+                    }
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }
+        });
+        evictAfterCompletion(ordered.keySet());
+        return updated;
+    }
+
+    // JDBC 로 바꾼 재고는 2차 캐시(item 리전)에 반영되지 않으므로 트랜잭션이 끝난 뒤 해당 상품만 비움
+    // 롤백이어도 비움: 같은 트랜잭션에서 차감 후 읽은 상품은 커밋되지 않은 재고로 캐시에 올라가 있을 수 있음
+    private void evictAfterCompletion(Collection<Long> itemIds) {
+        List<Long> evictIds = new ArrayList<>(itemIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evictIds.forEach(itemId -> em.getEntityManagerFactory().getCache().evict(Item.class, itemId));
+            }
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package jpabook.jpashop.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static javax.persistence.FetchType.*;
+
+@Entity
+// 키셋 페이징의 정렬 기준 (orderDate, order_id) 그대로 인덱스를 걸어두어야 정렬 없이 인덱스 범위 스캔만 함
+@Table(name = "orders", indexes = @Index(name = "idx_orders_order_date_id", columnList = "order_date, order_id"))
+@Getter @Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class Order {
+
+    // 기본 @GeneratedValue 는 insert 마다 시퀀스를 1번씩 호출해서 대량 insert 시 병목
+    // pooled 시퀀스로 id 를 50개씩 미리 받아두면 시퀀스 호출이 1/50 로 줄고 insert 도 배치로 묶임
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
+    @Column(name = "order_id")
+    private Long id;
+
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "member_id")
+    private Member member;
+
+    @BatchSize(size = 1000)  // 배치 사이즈 옵션을 개별적으로 적용할 때
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+    private List<OrderItem> orderItems = new ArrayList<>();
+
+    @OneToOne(fetch = LAZY, cascade = CascadeType.ALL)
+    @JoinColumn(name = "delivery_id")
+    private Delivery delivery;
+
+    private LocalDateTime orderDate; //주문시간
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status; //주문상태 [ORDER, CANCEL]
+
+    //==연관관계 메서드==//
+    public void setMember(Member member) {
+        this.member = member;
+        member.getOrders().add(this);
+    }
+
+    public void addOrderItem(OrderItem orderItem) {
+        orderItems.add(orderItem);
+        orderItem.setOrder(this);
+    }
+
+    public void setDelivery(Delivery delivery) {
+        this.delivery = delivery;
+        delivery.setOrder(this);
+    }
+
+    //==생성 메서드==//
+    public static Order createOrder(Member member, Delivery delivery, OrderItem... orderItems) {
+        Order order = new Order();
+        order.setMember(member);
+        order.setDelivery(delivery);
+        for (OrderItem orderItem : orderItems) {
+            order.addOrderItem(orderItem);
+        }
+        order.setStatus(OrderStatus.ORDER);
+        order.setOrderDate(LocalDateTime.now());
+        return order;
+    }
+
+    //==비즈니스 로직==//
+    /**
+     * 주문 취소
+     * - 상태만 바꾸고 재고는 건드리지 않음, 재고 복구는 OrderService.cancelOrder 가 ItemRepository.addStocks 로 처리
+     *   (상품 엔티티의 재고를 변경 감지로 덮어쓰면 그 사이 update 문으로 차감된 재고가 유실됨)
+     */
+    public void cancel() {
+        if (delivery.getStatus() == DeliveryStatus.COMP) {
+            throw new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다.");
+        }
+
+        this.setStatus(OrderStatus.CANCEL);
+    }
+
+    /**
+     * 대량 등록용 생성 메서드
+     * - StatelessSession 으로 insert 할 때 사용, 연관관계 편의 메서드(member.getOrders().add 등)를 거치지 않는다.
+     * - 재고는 OrderBulkIngestService 에서 상품별로 모아서 한 번에 차감한다.
+     */
+    public static Order createBulkOrder(Member member, Delivery delivery, LocalDateTime orderDate, List<OrderItem> orderItems) {
+        Order order = new Order();
+        order.member = member;
+        order.delivery = delivery;
+        delivery.setOrder(order);
+        for (OrderItem orderItem : orderItems) {
+            order.addOrderItem(orderItem);
+        }
+        order.setStatus(OrderStatus.ORDER);
+        order.setOrderDate(orderDate != null ? orderDate : LocalDateTime.now());
+        return order;
+    }
+
+    //==조회 로직==//
+    /**
+     * 전체 주문 가격 조회
+     */
+    public int getTotalPrice() {
+        int totalPrice = 0;
+        for (OrderItem orderItem : orderItems) {
+            totalPrice += orderItem.getTotalPrice();
+        }
+        return totalPrice;
+    }
+
+}
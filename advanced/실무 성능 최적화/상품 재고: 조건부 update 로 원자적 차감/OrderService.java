@@ -0,0 +1,94 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderService {
+
+    private final OrderRepository orderRepository;
+    private final MemberRepository memberRepository;
+    private final ItemRepository itemRepository;
+
+    /**
+     * 주문
+     */
+    @Transactional
+    public Long order(Long memberId, Long itemId, int count) {
+        return order(memberId, Map.of(itemId, count));
+    }
+
+    /**
+     * 여러 상품 주문 (키: 상품 id, 값: 주문 수량)
+     * - 재고는 엔티티로 읽고 빼지 않고 조건부 update 로 먼저 차감 (재고 부족이면 NotEnoughStockException)
+     * - 상품 id 순서로 차감해서 다른 주문과 락 순서가 엇갈리지 않음
+     */
+    @Transactional
+    public Long order(Long memberId, Map<Long, Integer> itemCounts) {
+        itemRepository.removeStocks(itemCounts);
+
+        //엔티티 조회
+        Member member = memberRepository.findOne(memberId);
+
+        //배송정보 생성
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+
+        //주문상품 생성 (재고는 위에서 차감됨)
+        OrderItem[] orderItems = new TreeMap<>(itemCounts).entrySet().stream()
+                .map(entry -> {
+                    Item item = itemRepository.findOne(entry.getKey());
+                    return OrderItem.createBulkOrderItem(item, item.getPrice(), entry.getValue());
+                })
+                .toArray(OrderItem[]::new);
+
+        //주문 생성
+        Order order = Order.createOrder(member, delivery, orderItems);
+
+        //주문 저장
+        orderRepository.save(order);
+        return order.getId();
+    }
+
+    /**
+     * 주문 취소
+     * - 재고는 Item.addStock(읽고 더해서 덮어쓰기)이 아니라 stock_quantity + ? update 로 복구
+     *   (2차 캐시에서 읽은 오래된 재고로 덮어써서 동시에 차감된 재고를 유실하지 않음)
+     */
+    @Transactional
+    public void cancelOrder(Long orderId) {
+        //주문 엔티티 조회
+        Order order = orderRepository.findOne(orderId);
+        //주문 취소
+        order.cancel();
+
+        //재고 복구 (프록시의 id 만 읽으므로 상품은 조회하지 않음)
+        Map<Long, Integer> restoreCounts = new HashMap<>();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            restoreCounts.merge(orderItem.getItem().getId(), orderItem.getCount(), Integer::sum);
+        }
+        itemRepository.addStocks(restoreCounts);
+    }
+
+    //검색
+    public List<Order> findOrders(OrderSearch orderSearch) {
+        return orderRepository.findAllByString(orderSearch);
+    }
+}
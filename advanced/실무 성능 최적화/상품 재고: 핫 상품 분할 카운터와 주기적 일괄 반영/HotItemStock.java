@@ -0,0 +1,212 @@
+package jpabook.jpashop.stock;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 핫 상품 1개의 메모리 재고
+ * - 재고를 stripe 여러 개로 나눠 들고, 스레드마다 정해진 stripe 하나만 잠그고 차감 (DB 행 락 하나에 줄 서지 않음)
+ * - 자기 stripe 가 모자라면 모든 stripe 를 인덱스 순서로 잠그고 나눠서 차감
+ * - stripe 마다 DB 에 아직 반영 안 된 증감(unflushed)을 모아두고, HotItemStockFlusher 가 주기적으로 걷어감
+ * - 차감(reserve)은 남은 재고(available)에서 바로 빼고, 저널과 unflushed 에는 커밋 직전(record)에만 남김
+ *   -> 트랜잭션 도중 프로세스가 죽으면 저널에 그 차감이 없음
+ *   -> record 와 DB 커밋 사이에 죽으면 커밋 안 된 차감이 저널에 남아 재고가 그만큼 적게 복구됨 (초과 판매 대신 덜 파는 쪽을 택함)
+ */
+public class HotItemStock {
+
+    private final Long itemId;
+    private final Stripe[] stripes;
+    // 교체(drain)는 모든 stripe 락을 잡고 하므로, stripe 락 하나라도 잡고 읽으면 안전
+    private StockJournal journal;
+
+    HotItemStock(Long itemId, int stock, int stripeCount, StockJournal journal) {
+        this.itemId = itemId;
+        this.journal = journal;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(stock / stripeCount + (i < stock % stripeCount ? 1 : 0));
+        }
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    /**
+     * 재고가 충분하면 남은 재고에서만 차감하고 true (저널, DB 반영 대기 증감에는 아직 남기지 않음)
+     */
+    boolean reserve(int quantity) {
+        Stripe home = homeStripe();
+        home.lock.lock();
+        try {
+            if (home.available >= quantity) {
+                home.available -= quantity;
+                return true;
+            }
+        } finally {
+            home.lock.unlock();
+        }
+        return reserveAcrossStripes(quantity);
+    }
+
+    /**
+     * 커밋되지 않은 차감을 남은 재고에 되돌림
+     */
+    void release(int quantity) {
+        Stripe home = homeStripe();
+        home.lock.lock();
+        try {
+            home.available += quantity;
+        } finally {
+            home.lock.unlock();
+        }
+    }
+
+    /**
+     * 커밋 직전에 증감을 저널과 DB 반영 대기 증감에 남김 (남은 재고는 reserve 에서 이미 바뀜)
+     */
+    void record(int delta) {
+        Stripe home = homeStripe();
+        home.lock.lock();
+        try {
+            journal.append(delta);
+            home.unflushed += delta;
+        } finally {
+            home.lock.unlock();
+        }
+    }
+
+    /**
+     * 재고 조건 없이 증감하고 바로 저널에 남김 (커밋된 주문 취소로 늘리기, 트랜잭션 밖 증감)
+     */
+    void adjust(int delta) {
+        Stripe home = homeStripe();
+        home.lock.lock();
+        try {
+            journal.append(delta);
+            home.apply(delta);
+        } finally {
+            home.lock.unlock();
+        }
+    }
+
+    private boolean reserveAcrossStripes(int quantity) {
+        lockAll();
+        try {
+            long total = 0;
+            for (Stripe stripe : stripes) {
+                total += stripe.available;
+            }
+            if (total < quantity) {
+                return false;
+            }
+            int remaining = quantity;
+            for (Stripe stripe : stripes) {
+                int taken = Math.min(stripe.available, remaining);
+                stripe.available -= taken;
+                remaining -= taken;
+            }
+            return true;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * 아직 DB 에 반영 안 된 증감을 걷어가고 저널을 새 파일로 교체
+     * - 걷어간 증감은 정확히 이전 저널 파일 내용의 합과 같음
+     * - 바뀐 게 없으면 null (파일을 매번 새로 만들지 않음)
+     */
+    Drained drain(JournalFactory journalFactory) {
+        lockAll();
+        try {
+            if (journal.isEmpty()) {
+                return null;
+            }
+            long delta = 0;
+            for (Stripe stripe : stripes) {
+                delta += stripe.unflushed;
+                stripe.unflushed = 0;
+            }
+            StockJournal drained = journal;
+            journal = journalFactory.open(itemId);
+            return new Drained(itemId, delta, drained);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    public long getAvailable() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                total += stripe.available;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    public long getUnflushed() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                total += stripe.unflushed;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    // 같은 스레드는 항상 같은 stripe 를 사용
+    private Stripe homeStripe() {
+        return stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+    }
+
+    // 여러 stripe 를 잡을 때는 항상 인덱스 순서 -> deadlock 없음
+    private void lockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].lock.unlock();
+        }
+    }
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int available;
+        private long unflushed;
+
+        Stripe(int available) {
+            this.available = available;
+        }
+
+        void apply(int delta) {
+            available += delta;
+            unflushed += delta;
+        }
+    }
+
+    interface JournalFactory {
+        StockJournal open(Long itemId);
+    }
+
+    static class Drained {
+        final Long itemId;
+        final long delta;
+        final StockJournal journal;
+
+        Drained(Long itemId, long delta, StockJournal journal) {
+            this.itemId = itemId;
+            this.delta = delta;
+            this.journal = journal;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package jpabook.jpashop.stock;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// HotItemStockFlusher 의 주기적 DB 반영용
+@Configuration
+@EnableScheduling
+public class HotItemStockConfig {
+}
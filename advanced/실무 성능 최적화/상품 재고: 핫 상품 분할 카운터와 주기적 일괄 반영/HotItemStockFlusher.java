@@ -0,0 +1,240 @@
+package jpabook.jpashop.stock;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.stock.HotItemStock.Drained;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 핫 상품 메모리 재고를 DB 에 반영
+ * - 시작 시: 지난번에 반영 못 하고 남은 저널 파일을 DB 에 반영(복구)한 뒤 지정된 핫 상품 재고를 메모리로 올림
+ *   웹 서버보다 먼저 시작하는 SmartLifecycle 이라 주문(HTTP, 주문 접수 파이프라인)을 받기 전에 끝남
+ *   (핫 상품은 이때 DB 에 있어야 함)
+ * - 주기마다: 상품별 순 증감을 걷어서 update 배치 1번 + 반영 기록(stock_journal_flush) insert 를 한 트랜잭션으로 커밋
+ *   커밋된 뒤에만 저널 파일을 지우고, 실패하면 걷어둔 증감을 들고 있다가 다음 주기에 다시 시도
+ */
+@Slf4j
+@Component
+public class HotItemStockFlusher implements SmartLifecycle {
+
+    // 웹 서버(WebServerStartStopLifecycle)보다 먼저 시작
+    private static final int PHASE = Integer.MIN_VALUE;
+
+    private final HotItemStockLedger ledger;
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final List<Long> hotItemIds;
+
+    // 걷어왔지만 아직 DB 반영이 안 된 저널
+    private final List<Drained> pending = new ArrayList<>();
+    private long flushCount;
+    private long failedFlushCount;
+    private long lastFlushMillis;
+    private volatile boolean running;
+
+    public HotItemStockFlusher(HotItemStockLedger ledger,
+                               EntityManager em,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${jpashop.hot-stock.item-ids:}") List<Long> hotItemIds) {
+        this.ledger = ledger;
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotItemIds = hotItemIds;
+    }
+
+    /**
+     * 복구가 끝나야 DB 재고가 정확하므로 그 다음에 메모리로 올림
+     * 올리는 순간 DB 로 차감 중인 주문이 있으면 그 차감은 메모리 재고에 빠지므로, 주문을 받기 전에만 올림
+     */
+    @Override
+    public synchronized void start() {
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (Long itemId : hotItemIds) {
+            Integer stock = transactionTemplate.execute(status -> em.createQuery(
+                            "select i.stockQuantity from Item i where i.id = :itemId", Integer.class)
+                    .setParameter("itemId", itemId)
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(null));
+            if (stock == null) {
+                log.warn("핫 상품으로 지정된 상품이 없습니다. itemId={}", itemId);
+                continue;
+            }
+            ledger.load(itemId, stock);
+            log.info("핫 상품 재고를 메모리로 올림. itemId={}, stock={}", itemId, stock);
+        }
+        running = true;
+    }
+
+    // 남은 증감 반영은 다른 빈이 모두 멈춘 뒤 shutdown 에서
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.hot-stock.flush-interval-ms:200}")
+    public synchronized void flush() {
+        for (HotItemStock stock : ledger.getStocks()) {
+            Drained drained = stock.drain(ledger::openJournal);
+            if (drained != null) {
+                drained.journal.close();
+                pending.add(drained);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Map<Long, Long> deltas = new TreeMap<>();
+        pending.forEach(d -> deltas.merge(d.itemId, d.delta, Long::sum));
+        List<String> flushIds = pending.stream()
+                .map(d -> flushId(d.journal.getPath()))
+                .collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(deltas, flushIds));
+        } catch (RuntimeException e) {
+            failedFlushCount++;
+            log.warn("핫 상품 재고 반영 실패, 다음 주기에 다시 시도. deltas={}", deltas, e);
+            return;
+        }
+
+        pending.forEach(d -> delete(d.journal.getPath()));
+        pending.clear();
+        deltas.keySet().forEach(itemId -> em.getEntityManagerFactory().getCache().evict(Item.class, itemId));
+        flushCount++;
+        lastFlushMillis = System.currentTimeMillis() - start;
+    }
+
+    // 종료 시 남은 증감을 반영 (실패해도 저널이 남아 있어서 다음 시작 때 복구됨)
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // 저널을 그대로 합산 (죽을 때 진행 중이던 주문의 차감은 없고, 커밋 직전에 죽은 주문의 차감은 있을 수 있음 -> 재고가 적게 잡힐 뿐)
+    private void recover() throws IOException {
+        List<Path> journals;
+        try (Stream<Path> files = Files.list(ledger.getJournalDir())) {
+            journals = files.filter(path -> path.getFileName().toString().endsWith(".journal"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path path : journals) {
+            String flushId = flushId(path);
+            Long itemId = Long.valueOf(flushId.substring(0, flushId.indexOf('-')));
+            long delta = StockJournal.sum(path);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (em.find(StockJournalFlush.class, flushId) == null) {
+                    apply(Map.of(itemId, delta), List.of(flushId));
+                    log.info("저널 복구. itemId={}, delta={}, file={}", itemId, delta, path);
+                }
+            });
+            delete(path);
+        }
+    }
+
+    private void apply(Map<Long, Long> deltas, List<String> flushIds) {
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement update = connection.prepareStatement(
+                    "update item set stock_quantity = stock_quantity + ? where item_id = ?");
+                 PreparedStatement insert = connection.prepareStatement(
+                         "insert into stock_journal_flush (flush_id, flushed_at) values (?, ?)")) {
+                for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+                    if (entry.getValue() != 0) {
+                        update.setLong(1, entry.getValue());
+                        update.setLong(2, entry.getKey());
+                        update.addBatch();
+                    }
+                }
+                update.executeBatch();
+
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                for (String flushId : flushIds) {
+                    insert.setString(1, flushId);
+                    insert.setTimestamp(2, now);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        });
+    }
+
+    // item-{상품 id}-{번호}.journal -> {상품 id}-{번호}
+    private String flushId(Path path) {
+        String fileName = path.getFileName().toString();
+        return fileName.substring("item-".length(), fileName.length() - ".journal".length());
+    }
+
+    // 못 지운 파일은 다음 시작 때 반영 기록을 보고 지워짐
+    private void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("저널 파일 삭제 실패. file={}", path, e);
+        }
+    }
+
+    public synchronized HotStockStats getStats() {
+        List<ItemStockStats> items = ledger.getStocks().stream()
+                .map(s -> new ItemStockStats(s.getItemId(), s.getAvailable(), s.getUnflushed()))
+                .collect(Collectors.toList());
+        return new HotStockStats(items, flushCount, failedFlushCount, lastFlushMillis, pending.size());
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class HotStockStats {
+        private List<ItemStockStats> items;
+        private long flushCount;
+        private long failedFlushCount;
+        private long lastFlushMillis;
+        private int pendingJournals; // 반영 실패로 재시도 대기 중인 저널 수
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ItemStockStats {
+        private Long itemId;
+        private long available;
+        private long unflushed; // 메모리에만 있고 DB 에 아직 반영 안 된 증감
+    }
+}
@@ -0,0 +1,182 @@
+package jpabook.jpashop.stock;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 핫 상품(플래시 세일 등) 메모리 재고 장부
+ * - jpashop.hot-stock.item-ids 로 지정한 상품만 대상, 나머지 상품은 지금처럼 DB 에서 차감
+ * - 핫 상품의 재고 차감/증가는 Item.removeStock/addStock, ItemRepository.removeStocks/addStocks 가 여기로 넘김
+ * - DB 의 stock_quantity 는 마지막 반영 시점 값이고, 그 뒤의 증감은 HotItemStockFlusher 가 주기적으로 모아서 반영
+ * - 트랜잭션 안에서 바꾼 재고는 커밋될 때만 저널에 남기고, 롤백되면 남은 재고를 되돌림 (DB 차감과 같은 의미)
+ *   차감은 커밋 직전(beforeCommit)에 남겨서, 커밋 직후 죽더라도 재고가 실제보다 많게 복구되지(초과 판매) 않게 함
+ * - 스프링 트랜잭션을 거치지 않는 곳(StatelessSession 대량 등록)은 reserve 로 받은 Reservation 을 직접 record/cancel
+ */
+@Component
+public class HotItemStockLedger {
+
+    // 엔티티(Item)는 스프링 빈을 주입받을 수 없어서 정적 참조로 접근
+    private static volatile HotItemStockLedger instance;
+
+    private final Map<Long, HotItemStock> stocks = new ConcurrentHashMap<>();
+    private final Path journalDir;
+    private final int stripeCount;
+    private final boolean fsync;
+    // 저널 파일 번호, 재시작해도 겹치지 않도록 시작 시각부터 증가
+    private final AtomicLong segmentSequence = new AtomicLong(System.currentTimeMillis());
+
+    public HotItemStockLedger(@Value("${jpashop.hot-stock.journal-dir:./hot-stock-journal}") String journalDir,
+                              @Value("${jpashop.hot-stock.stripes:8}") int stripeCount,
+                              @Value("${jpashop.hot-stock.fsync:false}") boolean fsync) {
+        this.journalDir = Paths.get(journalDir);
+        this.stripeCount = stripeCount;
+        this.fsync = fsync;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(journalDir);
+        instance = this;
+    }
+
+    /**
+     * 핫 상품이면 메모리 재고에서 차감하고 true, 아니면 false (호출하는 쪽이 DB 로 처리)
+     */
+    public static boolean removeIfHot(Long itemId, int quantity) {
+        HotItemStockLedger ledger = instance;
+        if (ledger == null || !ledger.isHot(itemId)) {
+            return false;
+        }
+        ledger.remove(itemId, quantity);
+        return true;
+    }
+
+    /**
+     * 핫 상품이면 메모리 재고를 늘리고 true, 아니면 false
+     */
+    public static boolean addIfHot(Long itemId, int quantity) {
+        HotItemStockLedger ledger = instance;
+        if (ledger == null || !ledger.isHot(itemId)) {
+            return false;
+        }
+        ledger.add(itemId, quantity);
+        return true;
+    }
+
+    public boolean isHot(Long itemId) {
+        return itemId != null && stocks.containsKey(itemId);
+    }
+
+    public void remove(Long itemId, int quantity) {
+        Reservation reservation = reserve(itemId, quantity);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reservation.record();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                reservation.record();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    reservation.cancel();
+                }
+            }
+        });
+    }
+
+    /**
+     * 남은 재고에서만 차감하고, 커밋/롤백 때 할 일은 호출하는 쪽에 맡김
+     */
+    public Reservation reserve(Long itemId, int quantity) {
+        HotItemStock stock = stocks.get(itemId);
+        if (!stock.reserve(quantity)) {
+            throw new NotEnoughStockException("need more stock. itemId=" + itemId);
+        }
+        return new Reservation(stock, quantity);
+    }
+
+    // 늘리는 쪽은 커밋된 뒤에 반영 (커밋 전에 늘리면 롤백될 재고를 다른 주문이 가져갈 수 있음)
+    public void add(Long itemId, int quantity) {
+        HotItemStock stock = stocks.get(itemId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stock.adjust(quantity);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stock.adjust(quantity);
+            }
+        });
+    }
+
+    public Collection<HotItemStock> getStocks() {
+        return stocks.values();
+    }
+
+    // HotItemStockFlusher 가 복구를 끝낸 뒤 DB 재고로 등록
+    void load(Long itemId, int stock) {
+        stocks.put(itemId, new HotItemStock(itemId, stock, stripeCount, openJournal(itemId)));
+    }
+
+    Path getJournalDir() {
+        return journalDir;
+    }
+
+    // 파일 이름: item-{상품 id}-{번호}.journal, DB 반영 기록(stock_journal_flush)의 키는 "{상품 id}-{번호}"
+    StockJournal openJournal(Long itemId) {
+        Path path = journalDir.resolve("item-" + itemId + "-" + segmentSequence.incrementAndGet() + ".journal");
+        if (Files.exists(path)) {
+            throw new UncheckedIOException(new IOException("journal already exists: " + path));
+        }
+        return StockJournal.open(path, fsync);
+    }
+
+    /**
+     * 메모리에서만 차감된 재고 1건
+     * - record: 커밋 직전에 호출, 저널과 DB 반영 대기 증감에 남김
+     * - cancel: 롤백(커밋 실패 포함) 때 호출, 남은 재고를 되돌리고 이미 record 했으면 되돌리는 증감도 남김
+     */
+    public static class Reservation {
+
+        private final HotItemStock stock;
+        private final int quantity;
+        private boolean recorded;
+
+        private Reservation(HotItemStock stock, int quantity) {
+            this.stock = stock;
+            this.quantity = quantity;
+        }
+
+        public void record() {
+            stock.record(-quantity);
+            recorded = true;
+        }
+
+        public void cancel() {
+            if (recorded) {
+                stock.record(quantity);
+                recorded = false;
+            }
+            stock.release(quantity);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.cache.OrderQueryDtoCache;
+import jpabook.jpashop.cache.OrderQueryDtoCache.DtoCacheStats;
+import jpabook.jpashop.cache.OrderSearchResultCache;
+import jpabook.jpashop.cache.OrderSearchResultCache.ResultCacheStats;
+import jpabook.jpashop.cache.SecondLevelCacheStats;
+import jpabook.jpashop.cache.SecondLevelCacheStats.RegionStats;
+import jpabook.jpashop.monitoring.QueryBudgetMetrics;
+import jpabook.jpashop.monitoring.QueryBudgetMetrics.HandlerStats;
+import jpabook.jpashop.repository.OrderSearchQueryRegistry;
+import jpabook.jpashop.repository.OrderSearchQueryRegistry.QueryShapeStats;
+import jpabook.jpashop.stock.HotItemStockFlusher;
+import jpabook.jpashop.stock.HotItemStockFlusher.HotStockStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 성능 최적화용 캐시/카운터 지표 조회
+ */
+@RestController
+@RequiredArgsConstructor
+public class StatsApiController {
+    private final OrderSearchQueryRegistry orderSearchQueryRegistry;
+    private final SecondLevelCacheStats secondLevelCacheStats;
+    private final OrderSearchResultCache orderSearchResultCache;
+    private final OrderQueryDtoCache orderQueryDtoCache;
+    private final QueryBudgetMetrics queryBudgetMetrics;
+    private final HotItemStockFlusher hotItemStockFlusher;
+
+    @GetMapping("/api/stats/order-search-queries")
+    public QueryShapeStats orderSearchQueries() {
+        return orderSearchQueryRegistry.getStats();
+    }
+
+    @GetMapping("/api/stats/second-level-cache")
+    public List<RegionStats> secondLevelCache() {
+        return secondLevelCacheStats.findAll();
+    }
+
+    @GetMapping("/api/stats/order-search-results")
+    public ResultCacheStats orderSearchResults() {
+        return orderSearchResultCache.getStats();
+    }
+
+    @GetMapping("/api/stats/order-query-dtos")
+    public DtoCacheStats orderQueryDtos() {
+        return orderQueryDtoCache.getStats();
+    }
+
+    @GetMapping("/api/stats/sql")
+    public List<HandlerStats> sql() {
+        return queryBudgetMetrics.findAll();
+    }
+
+    @GetMapping("/api/stats/hot-stock")
+    public HotStockStats hotStock() {
+        return hotItemStockFlusher.getStats();
+    }
+}
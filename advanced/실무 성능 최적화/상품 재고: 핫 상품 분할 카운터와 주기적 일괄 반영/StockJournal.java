@@ -0,0 +1,97 @@
+package jpabook.jpashop.stock;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 핫 상품 재고 증감 저널 (추가만 하는 파일, 한 줄에 증감 1개: "-3", "+1")
+ * - 커밋 직전(beforeCommit)에 증감을 쓴다. (진행 중인 트랜잭션의 차감은 메모리에만 있음, HotItemStock 참고)
+ *   쓴 뒤 DB 커밋 전에 죽으면 커밋되지 않은 차감이 남을 수 있음 -> 복구하면 재고가 실제보다 적음 (많아지지는 않음)
+ * - 메모리에서 바뀐 재고가 DB 에 반영되기 전에 프로세스가 죽어도, 다음 시작 때 파일을 합산해서 DB 에 반영
+ * - fsync 를 끄면 OS 페이지 캐시까지만 보장 (프로세스 장애는 안전, 서버 전원 장애는 마지막 몇 건 유실 가능)
+ */
+class StockJournal {
+
+    private final Path path;
+    private final FileChannel channel;
+    private final boolean fsync;
+    // 여러 stripe 가 각자 락을 잡고 동시에 쓰므로 volatile (FileChannel 쓰기 자체는 스레드 안전)
+    private volatile boolean written;
+
+    private StockJournal(Path path, FileChannel channel, boolean fsync) {
+        this.path = path;
+        this.channel = channel;
+        this.fsync = fsync;
+    }
+
+    static StockJournal open(Path path, boolean fsync) {
+        try {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            return new StockJournal(path, channel, fsync);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 호출하는 쪽(HotItemStock)이 stripe 락을 잡고 호출, 쓰기에 실패하면 메모리 재고도 바꾸지 않음
+    void append(int delta) {
+        ByteBuffer line = ByteBuffer.wrap(((delta > 0 ? "+" : "") + delta + "\n").getBytes(StandardCharsets.US_ASCII));
+        try {
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        written = true;
+    }
+
+    boolean isEmpty() {
+        return !written;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    void close() {
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 저널 파일의 증감 합계, 쓰다가 죽어서 줄바꿈 없이 끝난 마지막 줄은 무시
+     */
+    static long sum(Path path) {
+        try {
+            String content = new String(Files.readAllBytes(path), StandardCharsets.US_ASCII);
+            int end = content.lastIndexOf('\n');
+            if (end < 0) {
+                return 0;
+            }
+            long sum = 0;
+            for (String line : content.substring(0, end).split("\n")) {
+                if (!line.isEmpty()) {
+                    sum += Long.parseLong(line);
+                }
+            }
+            return sum;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package jpabook.jpashop.stock;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * DB 에 반영이 끝난 저널 파일 기록
+ * - 재고 update 와 같은 트랜잭션으로 insert 되므로, 이 행이 있으면 해당 저널은 이미 반영된 것
+ * - 반영 후 파일을 지우기 전에 죽어도 다시 시작할 때 두 번 반영하지 않음
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class StockJournalFlush {
+
+    @Id
+    @Column(name = "flush_id")
+    private String id; // {상품 id}-{저널 번호}
+
+    private LocalDateTime flushedAt;
+}
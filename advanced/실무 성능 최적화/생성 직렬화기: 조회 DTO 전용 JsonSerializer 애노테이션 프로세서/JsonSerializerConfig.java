@@ -0,0 +1,21 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.Module;
+import jpabook.jpashop.serializer.GeneratedSerializersModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 생성된 DTO 직렬화기 등록
+ * - 스프링 부트는 Module 빈을 모두 Jackson2ObjectMapperBuilder 에 넣으므로
+ *   JSON 과 BinaryFormatConfig 의 CBOR/Smile 컨버터 모두 생성된 직렬화기를 씀
+ * - GeneratedSerializersModule 은 @GenerateJsonSerializer 가 붙은 DTO 로 컴파일 시점에 만들어짐 (jpashop-serializer)
+ */
+@Configuration
+public class JsonSerializerConfig {
+
+    @Bean
+    public Module generatedSerializersModule() {
+        return new GeneratedSerializersModule();
+    }
+}
@@ -0,0 +1,39 @@
+package jpabook.jpashop.service.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.serializer.GenerateJsonSerializer;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * OrderApiController 에 있던 DTO 를 OrderQueryService 로 옮김
+ * - 생성자에서 지연 로딩을 하므로 반드시 트랜잭션 안(OrderQueryService)에서 만들어야 함
+ */
+@GenerateJsonSerializer
+@Data
+public class OrderDto {
+    private Long orderId;
+    private String name;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+    private Address address;
+    // 엔티티와의 관계를 완전히 끊기 위함
+    private List<OrderItemDto> orderItems;
+
+    public OrderDto(Order order) {
+        orderId = order.getId();
+        name = order.getMember().getName();
+        orderDate = order.getOrderDate();
+        orderStatus = order.getStatus();
+        address = order.getDelivery().getAddress();
+        orderItems = order.getOrderItems().stream()
+                .map(orderItem -> new OrderItemDto(orderItem))
+                .collect(toList());
+    }
+}
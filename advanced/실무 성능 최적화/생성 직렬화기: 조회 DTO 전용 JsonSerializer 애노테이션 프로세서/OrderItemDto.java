@@ -0,0 +1,20 @@
+package jpabook.jpashop.service.query;
+
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.serializer.GenerateJsonSerializer;
+import lombok.Data;
+
+@GenerateJsonSerializer
+@Data
+public class OrderItemDto {
+    // 고객이 필요한 이하 3개의 데이터만 포함시키기
+    private String itemName;
+    private int orderPrice;
+    private int count;
+
+    public OrderItemDto(OrderItem orderItem) {
+        itemName = orderItem.getItem().getName();
+        orderPrice = orderItem.getOrderPrice();
+        count = orderItem.getCount();
+    }
+}
@@ -0,0 +1,65 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.serializer.GenerateJsonSerializer;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@GenerateJsonSerializer
+@Data
+@EqualsAndHashCode(of = "orderId")  // groupingBy 할 때 기준을 알려주는 어노테이션 
+public class OrderQueryDto {
+
+    private Long orderId;
+    private String name;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+    private Address address;
+    private List<OrderItemQueryDto> orderItems;
+
+    public OrderQueryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address) {
+        this.orderId = orderId;
+        this.name = name;
+        this.orderDate = orderDate;
+        this.orderStatus = orderStatus;
+        this.address = address;
+    }
+
+    // 플랫 데이터를 조립할 때 orderItems 까지 한 번에 채우기 위한 생성자
+    public OrderQueryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address, List<OrderItemQueryDto> orderItems) {
+        this.orderId = orderId;
+        this.name = name;
+        this.orderDate = orderDate;
+        this.orderStatus = orderStatus;
+        this.address = address;
+        this.orderItems = orderItems;
+    }
+
+    //    private Long orderId;
+//    private String name;
+//    private LocalDateTime orderDate; //주문시간
+//    private OrderStatus orderStatus;
+//    private Address address;
+//    private List<OrderItemQueryDto> orderItems;
+//
+//    public OrderQueryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address) {
+//        this.orderId = orderId;
+//        this.name = name;
+//        this.orderDate = orderDate;
+//        this.orderStatus = orderStatus;
+//        this.address = address;
+//    }
+//
+//    public OrderQueryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address, List<OrderItemQueryDto> orderItems) {
+//        this.orderId = orderId;
+//        this.name = name;
+//        this.orderDate = orderDate;
+//        this.orderStatus = orderStatus;
+//        this.address = address;
+//        this.orderItems = orderItems;
+//    }
+}
\ No newline at end of file
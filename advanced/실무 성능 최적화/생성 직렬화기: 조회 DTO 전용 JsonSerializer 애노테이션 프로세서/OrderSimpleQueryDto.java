@@ -0,0 +1,45 @@
+package jpabook.jpashop.repository.order.simplequery;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.serializer.GenerateJsonSerializer;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@GenerateJsonSerializer
+@Data
+public class OrderSimpleQueryDto {
+    private Long orderId;
+    private String name;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+    private Address address;
+
+    public OrderSimpleQueryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address) {
+        this.orderId = orderId;
+        this.name = name;
+        this.orderDate = orderDate;
+        this.orderStatus = orderStatus;
+        this.address = address;
+    }
+}
+
+//@Data
+//public class OrderSimpleQueryDto {
+//
+//    private Long orderId;
+//    private String name;
+//    private LocalDateTime orderDate; //주문시간
+//    private OrderStatus orderStatus;
+//    private Address address;
+//
+//    public OrderSimpleQueryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address) {
+//        this.orderId = orderId;
+//        this.name = name;
+//        this.orderDate = orderDate;
+//        this.orderStatus = orderStatus;
+//        this.address = address;
+//    }
+//}
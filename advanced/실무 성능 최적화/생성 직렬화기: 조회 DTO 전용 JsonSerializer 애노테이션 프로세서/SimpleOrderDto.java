@@ -0,0 +1,30 @@
+package jpabook.jpashop.service.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.serializer.GenerateJsonSerializer;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * OrderSimpleApiController 에 있던 DTO 를 OrderQueryService 로 옮김
+ */
+@GenerateJsonSerializer
+@Data
+public class SimpleOrderDto {
+    private Long orderId;
+    private String name;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+    private Address address;
+
+    public SimpleOrderDto(Order order) {
+        orderId = order.getId();
+        name = order.getMember().getName();  //Lazy 초기화
+        orderDate = order.getOrderDate();
+        orderStatus = order.getStatus();
+        address = order.getDelivery().getAddress();  //Lazy 초기화
+    }
+}
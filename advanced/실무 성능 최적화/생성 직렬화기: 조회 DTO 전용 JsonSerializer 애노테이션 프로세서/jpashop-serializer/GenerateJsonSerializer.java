@@ -0,0 +1,17 @@
+package jpabook.jpashop.serializer;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 붙인 DTO 마다 컴파일 시점에 {클래스명}JsonSerializer 를 만들고 GeneratedSerializersModule 에 등록
+ * - 필드 선언 순서대로 getter 를 호출해서 씀 (Lombok @Data/@Getter 의 getter 이름 규칙)
+ * - @JsonIgnore 필드는 빼고, @JsonProperty 가 있으면 그 이름으로 씀
+ * - 리플렉션 대신 생성된 코드가 getter 를 직접 부르고, 필드 이름은 미리 인코딩해 둔 SerializedString 을 씀
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface GenerateJsonSerializer {
+}
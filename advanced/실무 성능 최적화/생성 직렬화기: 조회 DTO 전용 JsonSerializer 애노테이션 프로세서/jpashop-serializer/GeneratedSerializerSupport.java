@@ -0,0 +1,83 @@
+package jpabook.jpashop.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 생성된 JsonSerializer 가 쓰는 도우미
+ * - null 이면 null 을 씀 (ObjectMapper 기본값과 같음)
+ * - 날짜와 enum 은 Jackson 기본 출력과 같은 모양으로 바로 씀
+ *   ObjectMapper 설정이 기본값과 다르면(타임스탬프로 쓰기 등) 원래 직렬화기로 넘김
+ */
+public final class GeneratedSerializerSupport {
+
+    private GeneratedSerializerSupport() {
+    }
+
+    public static void writeString(JsonGenerator gen, String value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    public static void writeNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    public static void writeNumber(JsonGenerator gen, Integer value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    public static void writeNumber(JsonGenerator gen, Double value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    public static void writeBoolean(JsonGenerator gen, Boolean value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeBoolean(value);
+        }
+    }
+
+    public static void writeEnum(JsonGenerator gen, SerializerProvider provider, Enum<?> value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (provider.isEnabled(SerializationFeature.WRITE_ENUMS_USING_TO_STRING)
+                || provider.isEnabled(SerializationFeature.WRITE_ENUMS_USING_INDEX)) {
+            provider.defaultSerializeValue(value, gen);
+        } else {
+            gen.writeString(value.name());
+        }
+    }
+
+    // jackson-datatype-jsr310 의 LocalDateTimeSerializer 기본 출력과 같음 (초가 0 이어도 씀)
+    public static void writeLocalDateTime(JsonGenerator gen, SerializerProvider provider, LocalDateTime value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            provider.defaultSerializeValue(value, gen);
+        } else {
+            gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package jpabook.jpashop.serializer.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @GenerateJsonSerializer 가 붙은 DTO 마다 {클래스명}JsonSerializer 를 만들고,
+ * 전부 등록하는 jpabook.jpashop.serializer.GeneratedSerializersModule 을 만듦
+ *
+ * 필드 타입별로 쓰는 방법
+ * - 기본형, String, Long/Integer/Double/Boolean: JsonGenerator 에 바로 씀
+ * - enum, LocalDateTime: GeneratedSerializerSupport 로 바로 씀
+ * - @Embeddable(Address 등): 그 자리에 필드를 풀어서 씀
+ * - @GenerateJsonSerializer DTO 와 그 List/Collection: 생성된 직렬화기의 write 를 바로 호출
+ * - 그 외: ObjectMapper 의 원래 직렬화기로 넘김
+ */
+public class JsonSerializerProcessor extends AbstractProcessor {
+
+    private static final String ANNOTATION = "jpabook.jpashop.serializer.GenerateJsonSerializer";
+    private static final String MODULE_PACKAGE = "jpabook.jpashop.serializer";
+    private static final String MODULE_NAME = "GeneratedSerializersModule";
+    private static final String SUPPORT = "jpabook.jpashop.serializer.GeneratedSerializerSupport";
+
+    private static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+    private static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+    private static final String EMBEDDABLE = "javax.persistence.Embeddable";
+
+    private boolean moduleWritten;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(ANNOTATION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ANNOTATION);
+        if (annotation == null) {
+            return false;
+        }
+        List<TypeElement> dtos = new ArrayList<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@GenerateJsonSerializer 는 클래스에만 붙일 수 있음");
+                continue;
+            }
+            dtos.add((TypeElement) element);
+        }
+        if (dtos.isEmpty()) {
+            return false;
+        }
+
+        for (TypeElement dto : dtos) {
+            writeSerializer(dto);
+        }
+        // DTO 는 모두 손으로 쓴 소스라 첫 라운드에 다 나옴 -> 모듈은 그때 한 번만 만듦
+        if (!moduleWritten) {
+            writeModule(dtos);
+            moduleWritten = true;
+        }
+        return true;
+    }
+
+    //==직렬화기==//
+
+    private void writeSerializer(TypeElement dto) {
+        String packageName = packageOf(dto);
+        String serializerName = serializerSimpleName(dto);
+        String dtoName = dto.getQualifiedName().toString();
+
+        Map<String, String> names = new LinkedHashMap<>();
+        StringBuilder body = new StringBuilder();
+        int[] locals = {0};
+        writeProperties(dto, "value", body, names, locals, "        ");
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("@javax.annotation.processing.Generated(\"").append(JsonSerializerProcessor.class.getName()).append("\")\n");
+        source.append("public final class ").append(serializerName)
+                .append(" extends com.fasterxml.jackson.databind.ser.std.StdSerializer<").append(dtoName).append("> {\n\n");
+        for (Map.Entry<String, String> name : names.entrySet()) {
+            source.append("    private static final com.fasterxml.jackson.core.io.SerializedString ").append(name.getValue())
+                    .append(" = new com.fasterxml.jackson.core.io.SerializedString(\"").append(name.getKey()).append("\");\n");
+        }
+        source.append("\n");
+        source.append("    public ").append(serializerName).append("() {\n");
+        source.append("        super(").append(dtoName).append(".class);\n");
+        source.append("    }\n\n");
+        source.append("    @Override\n");
+        source.append("    public void serialize(").append(dtoName).append(" value, com.fasterxml.jackson.core.JsonGenerator gen, com.fasterxml.jackson.databind.SerializerProvider provider) throws java.io.IOException {\n");
+        source.append("        write(value, gen, provider);\n");
+        source.append("    }\n\n");
+        source.append("    public static void write(").append(dtoName).append(" value, com.fasterxml.jackson.core.JsonGenerator gen, com.fasterxml.jackson.databind.SerializerProvider provider) throws java.io.IOException {\n");
+        source.append("        if (value == null) {\n");
+        source.append("            gen.writeNull();\n");
+        source.append("            return;\n");
+        source.append("        }\n");
+        source.append("        gen.writeStartObject(value);\n");
+        source.append(body);
+        source.append("        gen.writeEndObject();\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        writeSource(qualified(packageName, serializerName), source.toString(), dto);
+    }
+
+    private void writeProperties(TypeElement type, String target, StringBuilder out, Map<String, String> names,
+                                 int[] locals, String indent) {
+        for (VariableElement field : fieldsOf(type)) {
+            if (hasAnnotation(field, JSON_IGNORE)) {
+                continue;
+            }
+            String jsonName = jsonNameOf(field);
+            String constant = names.computeIfAbsent(jsonName, JsonSerializerProcessor::constantName);
+            String getter = target + "." + getterName(field) + "()";
+            out.append(indent).append("gen.writeFieldName(").append(constant).append(");\n");
+            writeValue(field.asType(), getter, out, names, locals, indent);
+        }
+    }
+
+    private void writeValue(TypeMirror type, String expr, StringBuilder out, Map<String, String> names,
+                            int[] locals, String indent) {
+        TypeKind kind = type.getKind();
+        if (kind == TypeKind.BOOLEAN) {
+            out.append(indent).append("gen.writeBoolean(").append(expr).append(");\n");
+            return;
+        }
+        if (kind == TypeKind.CHAR) {
+            out.append(indent).append("gen.writeString(String.valueOf(").append(expr).append("));\n");
+            return;
+        }
+        if (kind.isPrimitive()) {
+            out.append(indent).append("gen.writeNumber(").append(expr).append(");\n");
+            return;
+        }
+        if (kind != TypeKind.DECLARED) {
+            writeFallback(expr, out, indent);
+            return;
+        }
+
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        String name = element.getQualifiedName().toString();
+        switch (name) {
+            case "java.lang.String":
+                out.append(indent).append(SUPPORT).append(".writeString(gen, ").append(expr).append(");\n");
+                return;
+            case "java.lang.Long":
+            case "java.lang.Integer":
+            case "java.lang.Double":
+                out.append(indent).append(SUPPORT).append(".writeNumber(gen, ").append(expr).append(");\n");
+                return;
+            case "java.lang.Boolean":
+                out.append(indent).append(SUPPORT).append(".writeBoolean(gen, ").append(expr).append(");\n");
+                return;
+            case "java.time.LocalDateTime":
+                out.append(indent).append(SUPPORT).append(".writeLocalDateTime(gen, provider, ").append(expr).append(");\n");
+                return;
+            default:
+        }
+        if (element.getKind() == ElementKind.ENUM) {
+            out.append(indent).append(SUPPORT).append(".writeEnum(gen, provider, ").append(expr).append(");\n");
+            return;
+        }
+        if (hasAnnotation(element, ANNOTATION)) {
+            out.append(indent).append(qualified(packageOf(element), serializerSimpleName(element)))
+                    .append(".write(").append(expr).append(", gen, provider);\n");
+            return;
+        }
+        if (hasAnnotation(element, EMBEDDABLE)) {
+            // 값 타입은 그 자리에 풀어서 씀
+            String local = "v" + locals[0]++;
+            out.append(indent).append(name).append(" ").append(local).append(" = ").append(expr).append(";\n");
+            out.append(indent).append("if (").append(local).append(" == null) {\n");
+            out.append(indent).append("    gen.writeNull();\n");
+            out.append(indent).append("} else {\n");
+            out.append(indent).append("    gen.writeStartObject(").append(local).append(");\n");
+            writeProperties(element, local, out, names, locals, indent + "    ");
+            out.append(indent).append("    gen.writeEndObject();\n");
+            out.append(indent).append("}\n");
+            return;
+        }
+        TypeElement elementType = generatedCollectionElement((DeclaredType) type);
+        if (elementType != null) {
+            String local = "v" + locals[0]++;
+            String item = "v" + locals[0]++;
+            String itemName = elementType.getQualifiedName().toString();
+            out.append(indent).append("java.util.Collection<? extends ").append(itemName).append("> ")
+                    .append(local).append(" = ").append(expr).append(";\n");
+            out.append(indent).append("if (").append(local).append(" == null) {\n");
+            out.append(indent).append("    gen.writeNull();\n");
+            out.append(indent).append("} else {\n");
+            out.append(indent).append("    gen.writeStartArray(").append(local).append(".size());\n");
+            out.append(indent).append("    for (").append(itemName).append(" ").append(item).append(" : ").append(local).append(") {\n");
+            out.append(indent).append("        ").append(qualified(packageOf(elementType), serializerSimpleName(elementType)))
+                    .append(".write(").append(item).append(", gen, provider);\n");
+            out.append(indent).append("    }\n");
+            out.append(indent).append("    gen.writeEndArray();\n");
+            out.append(indent).append("}\n");
+            return;
+        }
+        writeFallback(expr, out, indent);
+    }
+
+    private void writeFallback(String expr, StringBuilder out, String indent) {
+        out.append(indent).append("provider.defaultSerializeValue(").append(expr).append(", gen);\n");
+    }
+
+    // Collection<X> 이고 X 에 @GenerateJsonSerializer 가 붙어 있으면 X 를 돌려줌
+    private TypeElement generatedCollectionElement(DeclaredType type) {
+        TypeElement collection = processingEnv.getElementUtils().getTypeElement("java.util.Collection");
+        TypeMirror erasedCollection = processingEnv.getTypeUtils().erasure(collection.asType());
+        if (!processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type), erasedCollection)
+                || type.getTypeArguments().size() != 1) {
+            return null;
+        }
+        TypeMirror argument = type.getTypeArguments().get(0);
+        if (argument.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) argument).asElement();
+        return hasAnnotation(element, ANNOTATION) ? element : null;
+    }
+
+    //==모듈==//
+
+    private void writeModule(List<TypeElement> dtos) {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(MODULE_PACKAGE).append(";\n\n");
+        source.append("@javax.annotation.processing.Generated(\"").append(JsonSerializerProcessor.class.getName()).append("\")\n");
+        source.append("public class ").append(MODULE_NAME).append(" extends com.fasterxml.jackson.databind.module.SimpleModule {\n\n");
+        source.append("    public ").append(MODULE_NAME).append("() {\n");
+        source.append("        super(\"").append(MODULE_NAME).append("\");\n");
+        for (TypeElement dto : dtos) {
+            source.append("        addSerializer(").append(dto.getQualifiedName()).append(".class, new ")
+                    .append(qualified(packageOf(dto), serializerSimpleName(dto))).append("());\n");
+        }
+        source.append("    }\n");
+        source.append("}\n");
+
+        writeSource(MODULE_PACKAGE + "." + MODULE_NAME, source.toString(), dtos.toArray(new Element[0]));
+    }
+
+    //==도우미==//
+
+    // 상위 클래스 필드부터 선언 순서대로 (Jackson 기본 순서와 같음), static/transient 는 뺌
+    private List<VariableElement> fieldsOf(TypeElement type) {
+        List<VariableElement> fields = new ArrayList<>();
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() == TypeKind.DECLARED) {
+            TypeElement parent = (TypeElement) ((DeclaredType) superclass).asElement();
+            if (!parent.getQualifiedName().contentEquals("java.lang.Object")) {
+                fields.addAll(fieldsOf(parent));
+            }
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT)) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private String jsonNameOf(VariableElement field) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (isAnnotation(mirror, JSON_PROPERTY)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value")) {
+                        String value = String.valueOf(entry.getValue().getValue());
+                        if (!value.isEmpty()) {
+                            return value;
+                        }
+                    }
+                }
+            }
+        }
+        return field.getSimpleName().toString();
+    }
+
+    // Lombok getter 이름 규칙: boolean 기본형만 isXxx, 나머지는 getXxx
+    private static String getterName(VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        return (field.asType().getKind() == TypeKind.BOOLEAN ? "is" : "get") + capitalized;
+    }
+
+    // orderId -> ORDER_ID
+    private static String constantName(String jsonName) {
+        StringBuilder constant = new StringBuilder();
+        for (char c : jsonName.toCharArray()) {
+            if (Character.isUpperCase(c) && constant.length() > 0) {
+                constant.append('_');
+            }
+            constant.append(Character.isJavaIdentifierPart(c) ? Character.toUpperCase(c) : '_');
+        }
+        return constant.toString();
+    }
+
+    // 중첩 클래스는 바깥 클래스 이름을 붙임: Outer.Inner -> Outer_InnerJsonSerializer
+    private static String serializerSimpleName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name.append("JsonSerializer").toString();
+    }
+
+    private String packageOf(Element element) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(element);
+        return packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    }
+
+    private static String qualified(String packageName, String simpleName) {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    private static boolean hasAnnotation(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (isAnnotation(mirror, annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAnnotation(AnnotationMirror mirror, String annotation) {
+        return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation);
+    }
+
+    private void writeSource(String qualifiedName, String source, Element... originatingElements) {
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, originatingElements).openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, qualifiedName + " 생성 실패: " + e.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,49 @@
+package jpabook.jpashop.monitoring;
+
+/**
+ * 응답 하나를 직렬화하는 동안 만난 엔티티 연관관계 수 (요청 스레드 기준 ThreadLocal)
+ * - skipped: 로딩되지 않은 프록시/컬렉션이라 조회하지 않고 {id} 참조나 null 로 쓴 것
+ * - serialized: 이미 로딩되어 있어서 그대로 쓴 것
+ */
+public final class LazyAssociationContext {
+
+    private static final ThreadLocal<LazyAssociationContext> CURRENT = new ThreadLocal<>();
+
+    private int skipped;
+    private int serialized;
+
+    private LazyAssociationContext() {
+    }
+
+    public static LazyAssociationContext begin() {
+        LazyAssociationContext context = new LazyAssociationContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static void recordSkipped() {
+        LazyAssociationContext context = CURRENT.get();
+        if (context != null) {
+            context.skipped++;
+        }
+    }
+
+    public static void recordSerialized() {
+        LazyAssociationContext context = CURRENT.get();
+        if (context != null) {
+            context.serialized++;
+        }
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public int getSerialized() {
+        return serialized;
+    }
+}
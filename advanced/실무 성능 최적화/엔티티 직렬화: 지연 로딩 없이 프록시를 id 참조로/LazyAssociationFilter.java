@@ -0,0 +1,49 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 응답 단위로 건너뛴/직렬화한 엔티티 연관관계 수를 모음
+ * - 실제 카운트는 LazyReferenceModule 의 프로퍼티 writer 가 직렬화 중에 LazyAssociationContext 에 남김
+ * - 엔티티를 직렬화하지 않은(연관관계를 하나도 만나지 않은) 응답은 지표에 넣지 않음
+ */
+@Slf4j
+@Component
+public class LazyAssociationFilter extends OncePerRequestFilter {
+
+    private final LazyAssociationMetrics metrics;
+
+    public LazyAssociationFilter(LazyAssociationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        LazyAssociationContext context = LazyAssociationContext.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            LazyAssociationContext.end();
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null || context.getSkipped() + context.getSerialized() == 0) {
+            return;
+        }
+        metrics.record(pattern.toString(), context);
+        if (context.getSkipped() > 0) {
+            log.debug("[지연 로딩 건너뜀] {} 응답에서 연관관계 {}개를 조회 없이 참조로 씀 (직렬화 {}개)",
+                    pattern, context.getSkipped(), context.getSerialized());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * URL 패턴별 엔티티 연관관계 직렬화 지표
+ * - skipped 가 계속 나오는 엔드포인트는 응답에 빠진 연관관계가 있다는 뜻
+ *   (예전처럼 강제 초기화했다면 그만큼 N+1 쿼리가 나갔을 것) -> 페치 계획을 명시하거나 DTO 로 바꿀 대상
+ */
+@Component
+public class LazyAssociationMetrics {
+
+    private final ConcurrentMap<String, PatternCounter> counters = new ConcurrentHashMap<>();
+
+    public void record(String pattern, LazyAssociationContext context) {
+        PatternCounter counter = counters.computeIfAbsent(pattern, p -> new PatternCounter());
+        counter.responses.increment();
+        counter.skipped.add(context.getSkipped());
+        counter.serialized.add(context.getSerialized());
+        if (context.getSkipped() > 0) {
+            counter.responsesWithSkipped.increment();
+        }
+    }
+
+    public List<PatternStats> findAll() {
+        return counters.entrySet().stream()
+                .map(e -> e.getValue().toStats(e.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    private static class PatternCounter {
+        private final LongAdder responses = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder serialized = new LongAdder();
+        private final LongAdder responsesWithSkipped = new LongAdder();
+
+        PatternStats toStats(String pattern) {
+            return new PatternStats(pattern, responses.sum(), skipped.sum(), serialized.sum(), responsesWithSkipped.sum());
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class PatternStats {
+        private String pattern;
+        private long responses;
+        private long skipped;
+        private long serialized;
+        private long responsesWithSkipped;
+    }
+}
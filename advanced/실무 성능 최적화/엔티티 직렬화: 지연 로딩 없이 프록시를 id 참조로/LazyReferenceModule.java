@@ -0,0 +1,50 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+
+import javax.persistence.Entity;
+import javax.persistence.ManyToMany;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.OneToOne;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 엔티티를 그대로 반환하는 API(주문 V1, 회원 V1 등)용 직렬화 모드
+ * - @Entity 의 연관관계 프로퍼티만 LazyReferencePropertyWriter 로 바꿔서,
+ *   직렬화 중에 지연 로딩이 일어나지 않게 함 (FORCE_LAZY_LOADING 처럼 숨은 쿼리가 나가지 않음)
+ * - 응답에 필요한 연관관계는 서비스 트랜잭션 안에서 미리 로딩해야 하고, 빠진 것은 LazyAssociationMetrics 에 집계됨
+ */
+public class LazyReferenceModule extends SimpleModule {
+
+    public LazyReferenceModule() {
+        super("LazyReferenceModule");
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> beanProperties) {
+                if (!beanDesc.getBeanClass().isAnnotationPresent(Entity.class)) {
+                    return beanProperties;
+                }
+                List<BeanPropertyWriter> result = new ArrayList<>(beanProperties.size());
+                for (BeanPropertyWriter writer : beanProperties) {
+                    result.add(isAssociation(writer) ? new LazyReferencePropertyWriter(writer) : writer);
+                }
+                return result;
+            }
+        });
+    }
+
+    // 필드에 붙은 매핑 애노테이션도 getter 프로퍼티로 합쳐져서 보임
+    private static boolean isAssociation(BeanPropertyWriter writer) {
+        return writer.getAnnotation(ManyToOne.class) != null
+                || writer.getAnnotation(OneToOne.class) != null
+                || writer.getAnnotation(OneToMany.class) != null
+                || writer.getAnnotation(ManyToMany.class) != null;
+    }
+}
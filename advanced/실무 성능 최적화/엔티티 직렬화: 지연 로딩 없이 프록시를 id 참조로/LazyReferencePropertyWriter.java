@@ -0,0 +1,52 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import jpabook.jpashop.monitoring.LazyAssociationContext;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+
+/**
+ * 엔티티 연관관계 프로퍼티 writer
+ * - 초기화되지 않은 프록시: 세션을 건드리지 않고 프록시가 들고 있는 식별자로 {"id": ...} 만 씀
+ * - 초기화되지 않은 컬렉션: 원소 id 를 알려면 조회해야 하므로 null 로 씀
+ * - 이미 로딩된 연관관계: 원래 writer 로 그대로 씀 (Hibernate5Module 이 프록시를 풀어서 씀)
+ */
+class LazyReferencePropertyWriter extends BeanPropertyWriter {
+
+    private static final SerializedString ID = new SerializedString("id");
+
+    LazyReferencePropertyWriter(BeanPropertyWriter base) {
+        super(base);
+    }
+
+    @Override
+    public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+        Object value = get(bean);
+        if (value instanceof HibernateProxy) {
+            LazyInitializer initializer = ((HibernateProxy) value).getHibernateLazyInitializer();
+            if (initializer.isUninitialized()) {
+                LazyAssociationContext.recordSkipped();
+                gen.writeFieldName(_name);
+                gen.writeStartObject();
+                gen.writeFieldName(ID);
+                prov.defaultSerializeValue(initializer.getIdentifier(), gen);
+                gen.writeEndObject();
+                return;
+            }
+        } else if (value instanceof PersistentCollection && !((PersistentCollection) value).wasInitialized()) {
+            LazyAssociationContext.recordSkipped();
+            gen.writeFieldName(_name);
+            gen.writeNull();
+            return;
+        }
+
+        if (value != null) {
+            LazyAssociationContext.recordSerialized();
+        }
+        super.serializeAsField(bean, gen, prov);
+    }
+}
@@ -0,0 +1,384 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.monitoring.QueryBudget;
+import jpabook.jpashop.repository.*;
+import jpabook.jpashop.repository.order.query.OrderColumnarDto;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryAsyncAssembler;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.query.OrderDto;
+import jpabook.jpashop.service.query.OrderQueryService;
+import jpabook.jpashop.service.query.OrderQueryService.OrderDtoPage;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.stream.Collectors.*;
+
+
+/**
+ * V1. 엔티티 직접 노출
+ * - 엔티티가 변하면 API 스펙이 변한다.
+ * - 트랜잭션 안에서 지연 로딩 필요
+ * - 양방향 연관관계 문제
+ *
+ * V2. 엔티티를 조회해서 DTO로 변환(fetch join 사용X)
+ * - 트랜잭션 안에서 지연 로딩 필요
+ * V3. 엔티티를 조회해서 DTO로 변환(fetch join 사용O)
+ * - 페이징 시에는 N 부분을 포기해야함(대신에 batch fetch size? 옵션 주면 N -> 1 쿼리로 변경 가능)
+ * V3 페이징. 주문 id 만 먼저 페이징하고 그 id 들로 컬렉션까지 페치 조인 (2 Query)
+ * - 페치 조인의 결과 모양은 그대로, DB 에서 limit 이 걸려 메모리 사용량이 한 페이지로 제한됨
+ * V3.1 키셋. offset 대신 (orderDate, order_id) 커서로 페이징
+ * - 페이지 깊이와 상관없이 페이지당 비용이 일정하고, 새 주문이 들어와도 페이지가 밀리지 않음
+ *
+ * V4. JPA에서 DTO로 바로 조회, 컬렉션 N 조회 (1 + N Query)
+ * - 페이징 가능
+ * V5. JPA에서 DTO로 바로 조회, 컬렉션 1 조회 최적화 버전 (1 + 1 Query)
+ * - 페이징 가능
+ * - 조립된 DTO 는 주문 id 별로 캐시, 변경이 커밋된 주문만 다시 조회
+ * V5 동시 조회. 주문 id 구간 페이지로 루트 쿼리와 컬렉션 쿼리를 다른 커넥션에서 동시에 실행
+ * - 응답 시간이 두 쿼리 중 느린 쪽에 가까워짐
+ * V6. JPA에서 DTO로 바로 조회, 플랫 데이터(1Query) (1 Query)
+ * - 페이징 불가능...
+ * V6 컬럼형. 같은 플랫 데이터를 사전 인코딩한 컬럼 배열로 응답 (Accept 헤더로 선택)
+ * V6 중첩. 정렬된 플랫 데이터를 스트리밍으로 조립 (1 Query)
+ * - 주문 1건씩만 메모리에 들고 조립, V5 와 같은 응답 모양
+ *
+ * OSIV 끔(spring.jpa.open-in-view: false)
+ * - V1, V2, V3.1 은 OrderQueryService 트랜잭션 안에서 로딩과 DTO 변환을 끝내고 받음
+ * - V3 는 페치 조인으로 이미 다 로딩된 엔티티라 컨트롤러에서 변환해도 지연 로딩이 없음
+ *
+ */
+
+@RestController
+@RequiredArgsConstructor
+public class OrderApiController {
+    // 한 페이지 최대 크기, limit=0 은 Hibernate 에서 "제한 없음"이라 전체 테이블을 읽게 되므로 범위 밖은 400
+    static final int MAX_PAGE_LIMIT = 1000;
+
+    private final OrderRepository orderRepository;
+    private final OrderQueryService orderQueryService;
+    private final OrderQueryRepository orderQueryRepository;
+    private final OrderQueryAsyncAssembler orderQueryAsyncAssembler;
+    private final ObjectMapper objectMapper;
+
+    /**
+     *  V1. 엔티티 직접 노출
+     *  - 엔티티가 변하면 API 스펙이 변한다.
+     *  - 트랜잭션 안에서 지연 로딩 필요
+     *  - 양방향 연관관계 문제
+     */
+    @GetMapping("/api/v1/orders")
+    public List<Order> ordersV1() {
+        // OSIV 를 끈 상태라 직렬화 중 지연 로딩이 불가능하므로, 필요한 연관관계를 서비스 트랜잭션 안에서 모두 로딩해서 받음
+        // 그래도 빠진 연관관계는 LazyReferenceModule 이 조회 없이 {id} 참조로 씀 (/api/stats/lazy-associations 에서 확인)
+        return orderQueryService.findOrdersWithItems(new OrderSearch());
+    }
+
+    /**
+     *  V2. 엔티티를 조회해서 DTO로 변환(fetch join 사용X)
+     *  - 트랜잭션 안에서 지연 로딩 필요
+     */
+    @GetMapping("/api/v2/orders")
+    public List<OrderDto> ordersV2() {
+        return orderQueryService.findOrderDtos(new OrderSearch());
+    }
+
+    /**
+     * V3. 엔티티를 조회해서 DTO로 변환(fetch join 사용O)
+     *  - 페이징 시에는 N 부분을 포기해야함(대신에 batch fetch size? 옵션 주면 N -> 1 쿼리로 변경 가능)
+     */
+    @QueryBudget(max = 1)
+    @GetMapping("/api/v3/orders")
+    public List<OrderDto> ordersV3() {
+        List<Order> orders = orderRepository.findAllWithItem();
+        List<OrderDto> result = orders.stream()
+                .map(o -> new OrderDto(o))
+                .collect(Collectors.toList());
+        return result;
+    }
+
+    /**
+     * V3 페이징. 주문 id 만 먼저 페이징한 뒤 컬렉션까지 페치 조인
+     * - 메모리 페이징 없이 DB 에서 limit 이 걸리고, 한 페이지를 쿼리 2번으로 가져옴
+     */
+    @QueryBudget(max = 2)
+    @GetMapping("/api/v3/orders/page")
+    public List<OrderDto> ordersV3_twoPhase(@RequestParam(value = "offset", defaultValue = "0") int offset,
+                                            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        // limit=0 이면 1단계에서 주문 아이디를 전부 읽어 2단계 in 절에 모두 바인딩하게 됨
+        if (offset < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "offset 은 0 이상이어야 합니다.");
+        }
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit 은 1 ~ " + MAX_PAGE_LIMIT + " 사이여야 합니다.");
+        }
+        List<Order> orders = orderRepository.findAllWithItem(offset, limit);
+        List<OrderDto> result = orders.stream()
+                .map(o -> new OrderDto(o))
+                .collect(Collectors.toList());
+        return result;
+    }
+
+    @GetMapping("/api/v3.1/orders")
+    public List<OrderDto> ordersV3_page(@RequestParam(value = "offset", defaultValue = "0") int offset,
+                                        @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return orderQueryService.findOrderDtos(offset, limit);
+    }
+
+    /**
+     * V3.1 키셋 페이징
+     * - offset 대신 이전 페이지가 돌려준 nextCursor를 넘겨서 다음 페이지 조회
+     * - 첫 페이지는 cursor 없이 호출, nextCursor가 null이면 마지막 페이지
+     */
+    @GetMapping("/api/v3.1/orders/keyset")
+    public CursorResult<List<OrderDto>> ordersV3_keyset(@RequestParam(value = "cursor", required = false) String cursor,
+                                                        @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit 은 1 ~ " + MAX_PAGE_LIMIT + " 사이여야 합니다.");
+        }
+        OrderCursor orderCursor = null;
+        if (StringUtils.hasText(cursor)) {
+            try {
+                orderCursor = OrderCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+            }
+        }
+        OrderDtoPage page = orderQueryService.findOrderDtos(orderCursor, limit);
+        return new CursorResult<>(page.getOrders().size(), page.getOrders(), page.getNextCursor());
+    }
+
+    @GetMapping("/api/v4/orders")
+    public List<OrderQueryDto> ordersV4() {
+        return orderQueryRepository.findOrderQueryDtos();
+    }
+
+    // 캐시에 없는(무효화된) 주문만 1 + 1 쿼리로 다시 조회, 캐시 없는 원래 버전은 findAllByDto_optimization
+    @GetMapping("/api/v5/orders")
+    public List<OrderQueryDto> ordersV5() {
+        return orderQueryRepository.findAllByDto_cached();
+    }
+
+    // 첫 페이지는 cursor 없이 호출, nextCursor(마지막 주문 id)가 null 이면 마지막 페이지
+    @GetMapping("/api/v5/orders/concurrent")
+    public CursorResult<List<OrderQueryDto>> ordersV5_concurrent(@RequestParam(value = "cursor", required = false) Long cursor,
+                                                               @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit 은 1 ~ " + MAX_PAGE_LIMIT + " 사이여야 합니다.");
+        }
+        List<OrderQueryDto> result = orderQueryAsyncAssembler.findPageByDto_concurrent(cursor == null ? 0 : cursor, limit);
+        String nextCursor = result.size() == limit
+                ? String.valueOf(result.get(result.size() - 1).getOrderId())
+                : null;
+        return new CursorResult<>(result.size(), result, nextCursor);
+    }
+
+    @QueryBudget(max = 1)
+    @GetMapping("/api/v6/orders")
+    public List<OrderFlatDto> ordersV6() {
+//    public List<OrderQueryDto> ordersV6() {
+        List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
+        return flats;
+        // 만약 OrderQueryDto 타입으로 리턴하고 싶다면, 내가 아래 코드처럼직접 중복을 거르면 됨
+//        return flats.stream()
+//                .collect(groupingBy(o -> new OrderQueryDto(o.getOrderId(), o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
+//                        mapping(o -> new OrderItemQueryDto(o.getOrderId(), o.getItemName(), o.getOrderPrice(), o.getCount()), toList())
+//                )).entrySet().stream()
+//                .map(e -> new OrderQueryDto(e.getKey().getOrderId(), e.getKey().getName(), e.getKey().getOrderDate(), e.getKey().getOrderStatus(), e.getKey().getAddress()))
+//                .collect(toList());
+    }
+
+    /**
+     * V6 컬럼형. Accept: application/vnd.jpashop.orders-columnar+json 으로 요청하면 이쪽으로 옴
+     * - 같은 플랫 데이터(1 Query)를 주문 컬럼은 주문당 한 번, 주문상품 컬럼은 평행 배열, 문자열은 사전 번호로 보냄
+     * - 반복되는 회원 이름/주소/상품명이 사라져서 응답 크기와 파싱 비용이 줄어듦
+     */
+    @GetMapping(value = "/api/v6/orders", produces = OrderColumnarDto.MEDIA_TYPE)
+    public OrderColumnarDto ordersV6_columnar() {
+        return orderQueryRepository.findAllByDto_columnar();
+    }
+
+    /**
+     * V6 중첩. 플랫 데이터(1 Query)를 o.id 순으로 읽으면서 바로 OrderQueryDto 로 조립
+     * - V5 와 같은 응답 모양을 쿼리 1번으로 만듦
+     */
+    @QueryBudget(max = 1)
+    @GetMapping("/api/v6/orders/nested")
+    public List<OrderQueryDto> ordersV6_nested() {
+        return orderQueryRepository.findAllByDto_flatNested();
+    }
+
+    /**
+     * 전체 주문 내보내기
+     * - List 로 다 모은 뒤 Jackson 에 넘기지 않고, DB 커서로 읽은 주문을 1건씩 JsonGenerator 로 바로 응답에 씀
+     * - StreamingResponseBody 는 요청 스레드가 아닌 별도 스레드에서 실행되므로 트랜잭션은 레포지토리 메서드에서 염
+     */
+    @GetMapping(value = "/api/v6/orders/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> ordersExport() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                orderQueryRepository.scrollAllByDto_flat(order -> {
+                    try {
+                        generator.writeObject(order);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CursorResult<T> {
+        private int count;
+        private T data;
+        private String nextCursor;
+    }
+}
+
+//@RestController
+//@RequiredArgsConstructor
+//public class OrderApiController {
+//
+//    private final OrderRepository orderRepository;
+//    private final OrderQueryRepository orderQueryRepository;
+//
+//    /**
+//     * V1. 엔티티 직접 노출
+//     * - Hibernate5Module 모듈 등록, LAZY=null 처리
+//     * - 양방향 관계 문제 발생 -> @JsonIgnore
+//     */
+//    @GetMapping("/api/v1/orders")
+//    public List<Order> ordersV1() {
+//        List<Order> all = orderRepository.findAll();
+//        for (Order order : all) {
+//            order.getMember().getName(); //Lazy 강제 초기화
+//            order.getDelivery().getAddress(); //Lazy 강제 초기환
+//            List<OrderItem> orderItems = order.getOrderItems();
+//            orderItems.stream().forEach(o -> o.getItem().getName()); //Lazy 강제 초기화
+//        }
+//        return all;
+//    }
+//
+//    @GetMapping("/api/v2/orders")
+//    public List<OrderDto> ordersV2() {
+//        List<Order> orders = orderRepository.findAll();
+//        List<OrderDto> result = orders.stream()
+//                .map(o -> new OrderDto(o))
+//                .collect(toList());
+//
+//        return result;
+//    }
+//
+//    @GetMapping("/api/v3/orders")
+//    public List<OrderDto> ordersV3() {
+//        List<Order> orders = orderRepository.findAllWithItem();
+//        List<OrderDto> result = orders.stream()
+//                .map(o -> new OrderDto(o))
+//                .collect(toList());
+//
+//        return result;
+//    }
+//
+//    /**
+//     * V3.1 엔티티를 조회해서 DTO로 변환 페이징 고려
+//     * - ToOne 관계만 우선 모두 페치 조인으로 최적화
+//     * - 컬렉션 관계는 hibernate.default_batch_fetch_size, @BatchSize로 최적화
+//     */
+//    @GetMapping("/api/v3.1/orders")
+//    public List<OrderDto> ordersV3_page(@RequestParam(value = "offset", defaultValue = "0") int offset,
+//                                        @RequestParam(value = "limit", defaultValue = "100") int limit) {
+//
+//        List<Order> orders = orderRepository.findAllWithMemberDelivery(offset, limit);
+//        List<OrderDto> result = orders.stream()
+//                .map(o -> new OrderDto(o))
+//                .collect(toList());
+//
+//        return result;
+//    }
+//
+//    @GetMapping("/api/v4/orders")
+//    public List<OrderQueryDto> ordersV4() {
+//        return orderQueryRepository.findOrderQueryDtos();
+//    }
+//
+//    @GetMapping("/api/v5/orders")
+//    public List<OrderQueryDto> ordersV5() {
+//        return orderQueryRepository.findAllByDto_optimization();
+//    }
+//
+//    @GetMapping("/api/v6/orders")
+//    public List<OrderQueryDto> ordersV6() {
+//        List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
+//
+//        return flats.stream()
+//                .collect(groupingBy(o -> new OrderQueryDto(o.getOrderId(), o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
+//                        mapping(o -> new OrderItemQueryDto(o.getOrderId(), o.getItemName(), o.getOrderPrice(), o.getCount()), toList())
+//                )).entrySet().stream()
+//                .map(e -> new OrderQueryDto(e.getKey().getOrderId(), e.getKey().getName(), e.getKey().getOrderDate(), e.getKey().getOrderStatus(), e.getKey().getAddress(), e.getValue()))
+//                .collect(toList());
+//    }
+//
+//    @Data
+//    static class OrderDto {
+//
+//        private Long orderId;
+//        private String name;
+//        private LocalDateTime orderDate; //주문시간
+//        private OrderStatus orderStatus;
+//        private Address address;
+//        private List<OrderItemDto> orderItems;
+//
+//        public OrderDto(Order order) {
+//            orderId = order.getId();
+//            name = order.getMember().getName();
+//            orderDate = order.getOrderDate();
+//            orderStatus = order.getStatus();
+//            address = order.getDelivery().getAddress();
+//            orderItems = order.getOrderItems().stream()
+//                    .map(orderItem -> new OrderItemDto(orderItem))
+//                    .collect(toList());
+//        }
+//    }
+//
+//    @Data
+//    static class OrderItemDto {
+//
+//        private String itemName;//상품 명
+//        private int orderPrice; //주문 가격
+//        private int count;      //주문 수량
+//
+//        public OrderItemDto(OrderItem orderItem) {
+//            itemName = orderItem.getItem().getName();
+//            orderPrice = orderItem.getOrderPrice();
+//            count = orderItem.getCount();
+//        }
+//    }
+//
+//}
@@ -0,0 +1,71 @@
+package jpabook.jpashop.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 로컬 개발용 복제 흉내 (임베디드 H2 두 개를 주 DB / 복제본으로 쓸 때)
+ * - 주기마다 주 DB 를 SCRIPT 로 통째로 떠서 복제본에 다시 만듦 -> 주기만큼 늦게 따라오는 비동기 복제
+ * - 하트비트 테이블도 같이 복사되므로 ReplicaLagMonitor 의 지연 측정, 쓰기 후 읽기 고정이 실제 복제와 같게 동작
+ * - 다시 만드는 동안에는 복제본을 사용하지 않음
+ *   이미 복제본을 쓰고 있는 읽기 트랜잭션이 끝나기를 기다렸다가 지움 (쿼리 도중 테이블이 사라지지 않게)
+ * - 데이터를 통째로 복사하므로 작은 개발 데이터에만 사용할 것
+ */
+@Slf4j
+public class LocalReplicaSync {
+
+    // 이 시간 안에 사용 중인 트랜잭션이 끝나지 않으면 그 복제본은 이번 주기에 건너뜀
+    private static final long DRAIN_TIMEOUT_MILLIS = 5_000;
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    public LocalReplicaSync(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.datasource.replica.local-sync-interval-ms:500}")
+    public void sync() throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection connection = routingDataSource.getPrimary().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("script nopasswords nosettings")) {
+            while (rs.next()) {
+                script.add(rs.getString(1));
+            }
+        }
+
+        for (Replica replica : routingDataSource.getReplicas()) {
+            try {
+                if (!replica.beginSync(DRAIN_TIMEOUT_MILLIS)) {
+                    log.warn("복제본 {} 을 쓰는 트랜잭션이 끝나지 않아 이번 동기화는 건너뜀", replica.getName());
+                    continue;
+                }
+                rebuild(replica, script);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                replica.endSync();
+            }
+        }
+    }
+
+    private void rebuild(Replica replica, List<String> script) {
+        try (Connection connection = replica.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        } catch (SQLException e) {
+            log.warn("복제본 {} 동기화 실패: {}", replica.getName(), e.getMessage());
+        }
+    }
+}
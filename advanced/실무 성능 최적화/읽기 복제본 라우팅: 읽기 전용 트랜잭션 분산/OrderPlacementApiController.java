@@ -0,0 +1,79 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.datasource.ReadYourWritesFilter;
+import jpabook.jpashop.service.OrderPlacementPipeline;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 접수 API
+ * - 요청 스레드는 파이프라인에 주문을 넣고 바로 반환 (CompletableFuture -> 서블릿 비동기 처리)
+ * - 묶음 커밋이 끝나면 응답이 나감
+ * - 커밋은 파이프라인 워커 스레드에서 일어나서 ReadYourWritesFilter 가 보지 못하므로, 복제본을 쓰면 완료 시각을 세션에 직접 기록
+ *   (다음 조회가 방금 넣은 주문이 복제되기 전의 복제본을 읽지 않게)
+ */
+@RestController
+@RequiredArgsConstructor
+public class OrderPlacementApiController {
+
+    private final OrderPlacementPipeline orderPlacementPipeline;
+
+    @Value("${jpashop.datasource.replica.enabled:false}")
+    private boolean replicaEnabled;
+
+    @PostMapping("/api/orders")
+    public CompletableFuture<CreateOrderResponse> createOrder(@RequestBody @Valid CreateOrderRequest request,
+                                                              HttpServletRequest httpRequest) {
+        Map<Long, Integer> itemCounts = request.getItems().stream()
+                .collect(Collectors.toMap(OrderLine::getItemId, OrderLine::getCount, Integer::sum));
+        // 응답이 나가기 시작하면 쿠키를 보낼 수 없으므로 세션은 요청 스레드에서 미리 만듦
+        HttpSession session = replicaEnabled ? httpRequest.getSession() : null;
+        return orderPlacementPipeline.place(request.getMemberId(), itemCounts)
+                .thenApply(orderId -> {
+                    if (session != null) {
+                        ReadYourWritesFilter.recordWrite(session, System.currentTimeMillis());
+                    }
+                    return new CreateOrderResponse(orderId);
+                });
+    }
+
+    @Data
+    static class CreateOrderRequest {
+        @NotNull
+        private Long memberId;
+        @Valid
+        @NotEmpty
+        private List<OrderLine> items = new ArrayList<>();
+    }
+
+    @Data
+    static class OrderLine {
+        @NotNull
+        private Long itemId;
+        @Positive // 음수 수량은 조건부 update 에서 재고를 늘림
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateOrderResponse {
+        private Long orderId;
+    }
+}
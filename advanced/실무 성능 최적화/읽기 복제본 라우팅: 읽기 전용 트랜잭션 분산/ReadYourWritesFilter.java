@@ -0,0 +1,55 @@
+package jpabook.jpashop.datasource;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+
+/**
+ * 쓰기 후 읽기 고정 (read-your-writes)
+ * - 세션의 마지막 쓰기 커밋 시각을 요청 동안 ReplicaRoutingContext 에 올려둠
+ * - 요청 중에 쓰기가 커밋되면 세션에 저장 -> 같은 세션의 다음 요청도 그 쓰기가 복제될 때까지 주 DB 에서 읽음
+ * - 세션(쿠키)이 없는 클라이언트는 같은 요청 안에서만 고정됨
+ *   (세션이 없고 응답이 이미 나가기 시작했으면 쿠키를 보낼 수 없어서 세션을 만들지 않음)
+ * - 요청 스레드가 아닌 곳에서 커밋되는 쓰기(주문 접수 파이프라인 등)는 이 필터가 볼 수 없으므로 recordWrite 로 직접 기록
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String LAST_WRITE_AT = ReadYourWritesFilter.class.getName() + ".LAST_WRITE_AT";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        Long lastWriteAt = session == null ? null : (Long) session.getAttribute(LAST_WRITE_AT);
+        ReplicaRoutingContext.setLastWriteAt(lastWriteAt == null ? 0 : lastWriteAt);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long written = ReplicaRoutingContext.getLastWriteAt();
+            ReplicaRoutingContext.clear();
+            if (written > (lastWriteAt == null ? 0 : lastWriteAt)) {
+                HttpSession target = session != null ? session : response.isCommitted() ? null : request.getSession();
+                if (target != null) {
+                    target.setAttribute(LAST_WRITE_AT, written);
+                }
+            }
+        }
+    }
+
+    /**
+     * 다른 스레드에서 커밋된 쓰기를 세션에 기록 (응답이 나가기 전에 호출)
+     */
+    public static void recordWrite(HttpSession session, long writtenAt) {
+        synchronized (session) {
+            Long lastWriteAt = (Long) session.getAttribute(LAST_WRITE_AT);
+            if (lastWriteAt == null || lastWriteAt < writtenAt) {
+                session.setAttribute(LAST_WRITE_AT, writtenAt);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package jpabook.jpashop.datasource;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 복제본 1개와 ReplicaLagMonitor 가 마지막으로 잰 복제 상태
+ */
+public class Replica {
+
+    private final String name;
+    private final DataSource dataSource;
+
+    // 복제본에 보이는 마지막 하트비트 시각 = 이 시각까지의 커밋은 복제본에도 있음
+    private volatile long replicatedUpTo;
+    private volatile long lagMillis = Long.MAX_VALUE;
+    private volatile boolean available;
+    // LocalReplicaSync 가 복제본을 다시 만드는 중
+    private volatile boolean syncing;
+    // 이 복제본 커넥션으로 실행 중인 읽기 전용 트랜잭션 수
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder routedCount = new LongAdder();
+
+    public Replica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * 지연이 허용 범위 안이고, 세션의 마지막 쓰기 이후까지 복제된 경우에만 사용
+     */
+    boolean isUsable(long maxLagMillis, long lastWriteAt) {
+        return available && !syncing && lagMillis <= maxLagMillis && replicatedUpTo >= lastWriteAt;
+    }
+
+    void updateLag(long replicatedUpTo, long now) {
+        this.replicatedUpTo = replicatedUpTo;
+        this.lagMillis = now - replicatedUpTo;
+        this.available = true;
+    }
+
+    void markUnavailable() {
+        this.available = false;
+    }
+
+    /**
+     * 트랜잭션 하나가 이 복제본을 쓰기 시작, 다시 만드는 중이면 false
+     * inFlight 를 먼저 올리고 syncing 을 보므로, beginSync 와 엇갈려도 둘 중 하나는 상대를 봄
+     */
+    boolean tryAcquire() {
+        inFlight.incrementAndGet();
+        if (syncing) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 새 트랜잭션이 이 복제본으로 오지 않게 하고, 이미 쓰고 있는 트랜잭션이 끝날 때까지 기다림
+     * @return timeoutMillis 안에 모두 끝났으면 true
+     */
+    boolean beginSync(long timeoutMillis) throws InterruptedException {
+        this.syncing = true;
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (inFlight.get() > 0) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    void endSync() {
+        this.syncing = false;
+    }
+
+    void routed() {
+        routedCount.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public long getRoutedCount() {
+        return routedCount.sum();
+    }
+}
@@ -0,0 +1,86 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 주 DB + 읽기 복제본 구성 (jpashop.datasource.replica.enabled=true 일 때만)
+ * - 주 DB 는 spring.datasource.* 설정 그대로, 복제본은 urls 마다 같은 계정/풀 크기로 만듦
+ * - JPA 가 쓰는 DataSource 는 LazyConnectionDataSourceProxy(ReplicaRoutingDataSource)
+ *   스프링 부트의 기본 DataSource 자동 구성은 이 빈이 있으면 만들어지지 않음
+ * - OSIV 가 켜져 있으면 시작하지 않음
+ *   Hibernate 세션은 처음 받은 커넥션을 세션이 끝날 때까지 잡고 있으므로(DELAYED_ACQUISITION_AND_HOLD)
+ *   OSIV 로 세션이 요청 내내 열려 있으면, 먼저 실행된 읽기 전용 트랜잭션의 복제본 커넥션으로 같은 요청의 쓰기까지 나감
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "jpashop.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    public ReplicaDataSourceConfig(@Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (openInView) {
+            throw new IllegalStateException("jpashop.datasource.replica.enabled=true 이면 spring.jpa.open-in-view=false 로 꺼야 합니다. (트랜잭션마다 커넥션을 새로 골라야 함)");
+        }
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             @Value("${jpashop.datasource.replica.urls}") List<String> urls,
+                                                             @Value("${jpashop.datasource.replica.max-lag-ms:1000}") long maxLagMillis) {
+        List<Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i))
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            replicas.add(new Replica("replica-" + i, replica));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "jpashop.datasource.replica.local-sync", havingValue = "true")
+    public LocalReplicaSync localReplicaSync(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LocalReplicaSync(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
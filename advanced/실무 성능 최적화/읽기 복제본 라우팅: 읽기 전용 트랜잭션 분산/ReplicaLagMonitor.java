@@ -0,0 +1,65 @@
+package jpabook.jpashop.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.annotation.PostConstruct;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 복제 지연 측정
+ * - 주 DB 의 replication_heartbeat 에 주기마다 현재 시각(애플리케이션 시계)을 기록
+ * - 복제본에 보이는 하트비트 시각 = 그 시각까지의 커밋이 복제된 것, 지금과의 차이 = 복제 지연
+ * - 하트비트 주기만큼은 항상 지연으로 잡히므로 max-lag-ms 는 주기보다 크게 둘 것
+ * - 복제본 조회에 실패하면 다음 측정까지 그 복제본은 사용하지 않음
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @PostConstruct
+    public void createHeartbeatTable() throws SQLException {
+        try (Connection connection = routingDataSource.getPrimary().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists replication_heartbeat (id int primary key, beat_at bigint not null)");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.datasource.replica.heartbeat-interval-ms:200}")
+    public void check() {
+        try (Connection connection = routingDataSource.getPrimary().getConnection();
+             PreparedStatement beat = connection.prepareStatement(
+                     "merge into replication_heartbeat key (id) values (1, ?)")) {
+            beat.setLong(1, System.currentTimeMillis());
+            beat.executeUpdate();
+        } catch (SQLException e) {
+            log.warn("주 DB 하트비트 기록 실패", e);
+        }
+
+        for (Replica replica : routingDataSource.getReplicas()) {
+            try (Connection connection = replica.getDataSource().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select beat_at from replication_heartbeat where id = 1")) {
+                if (rs.next()) {
+                    replica.updateLag(rs.getLong(1), System.currentTimeMillis());
+                } else {
+                    replica.markUnavailable();
+                }
+            } catch (SQLException e) {
+                if (replica.isAvailable()) {
+                    log.warn("복제본 {} 지연 측정 실패, 복제본 사용 중지: {}", replica.getName(), e.getMessage());
+                }
+                replica.markUnavailable();
+            }
+        }
+    }
+}
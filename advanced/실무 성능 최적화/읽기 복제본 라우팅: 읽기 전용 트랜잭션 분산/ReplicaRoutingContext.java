@@ -0,0 +1,27 @@
+package jpabook.jpashop.datasource;
+
+/**
+ * 사용자(HTTP 세션)의 마지막 쓰기 커밋 시각 (요청 스레드 기준 ThreadLocal)
+ * - ReadYourWritesFilter 가 요청 시작 시 세션에서 꺼내 넣고, 요청이 끝나면 세션에 다시 저장
+ * - 복제본은 이 시각 이후까지 복제된 경우에만 읽기에 사용 (방금 쓴 데이터가 안 보이는 일이 없게)
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Long> LAST_WRITE_AT = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {
+    }
+
+    public static long getLastWriteAt() {
+        Long lastWriteAt = LAST_WRITE_AT.get();
+        return lastWriteAt == null ? 0 : lastWriteAt;
+    }
+
+    public static void setLastWriteAt(long lastWriteAt) {
+        LAST_WRITE_AT.set(lastWriteAt);
+    }
+
+    public static void clear() {
+        LAST_WRITE_AT.remove();
+    }
+}
@@ -0,0 +1,141 @@
+package jpabook.jpashop.datasource;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))은 복제본으로, 나머지는 주 DB 로 보냄
+ * - 복제본은 돌아가면서 사용하고, 지연이 max-lag-ms 를 넘었거나 세션의 마지막 쓰기가 아직 복제되지 않았으면 건너뜀
+ *   쓸 수 있는 복제본이 없으면 주 DB 로 읽음
+ * - 트랜잭션 시작 시점에는 아직 readOnly 표시가 안 되어 있으므로 LazyConnectionDataSourceProxy 로 감싸서
+ *   첫 SQL 을 실행할 때 커넥션을 고르게 해야 함 (ReplicaDataSourceConfig)
+ * - 라우팅은 커넥션을 받을 때 한 번 정해지므로, 트랜잭션이 끝나면 커넥션도 돌려줘야 함 (OSIV 끔)
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    // 쓰기 트랜잭션마다 커밋 후 기록을 한 번만 등록하기 위한 표시
+    private static final Object WRITE_MARKER = new Object();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryWrites = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, long maxLagMillis) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLagMillis = maxLagMillis;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit();
+            primaryWrites.increment();
+            return PRIMARY;
+        }
+
+        if (replicas.isEmpty()) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        long lastWriteAt = ReplicaRoutingContext.getLastWriteAt();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isUsable(maxLagMillis, lastWriteAt) && acquire(replica)) {
+                replica.routed();
+                return replica.getName();
+            }
+        }
+        primaryReads.increment();
+        return PRIMARY;
+    }
+
+    // 트랜잭션이 끝나면 복제본 사용을 풀어줌 (LocalReplicaSync 가 쓰고 있는 복제본을 다시 만들지 않게)
+    private boolean acquire(Replica replica) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || !replica.tryAcquire()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                replica.release();
+            }
+        });
+        return true;
+    }
+
+    // 커밋이 끝난 시각을 세션의 마지막 쓰기로 기록 (롤백되면 기록하지 않음)
+    private void recordWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(WRITE_MARKER)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(WRITE_MARKER, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ReplicaRoutingContext.setLastWriteAt(System.currentTimeMillis());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_MARKER);
+            }
+        });
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public RoutingStats getStats() {
+        List<ReplicaStats> replicaStats = replicas.stream()
+                .map(r -> new ReplicaStats(r.getName(), r.isAvailable(), r.getLagMillis(), r.getRoutedCount()))
+                .collect(Collectors.toList());
+        return new RoutingStats(maxLagMillis, primaryWrites.sum(), primaryReads.sum(), replicaStats);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RoutingStats {
+        private long maxLagMillis;
+        private long primaryWrites;
+        private long primaryReads; // 복제본을 못 써서 주 DB 로 간 읽기 전용 트랜잭션 수
+        private List<ReplicaStats> replicas;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ReplicaStats {
+        private String name;
+        private boolean available;
+        private long lagMillis;
+        private long routedCount;
+    }
+}
@@ -0,0 +1,203 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.cache.OrderSearchKey;
+import jpabook.jpashop.cache.OrderSearchResultCache;
+import jpabook.jpashop.domain.Order;
+
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Repository
+public class OrderRepository {
+
+    private final EntityManager em;
+    private final OrderSearchQueryRegistry queryRegistry;
+    private final OrderSearchResultCache resultCache;
+
+    public OrderRepository(EntityManager em, OrderSearchQueryRegistry queryRegistry, OrderSearchResultCache resultCache) {
+        this.em = em;
+        this.queryRegistry = queryRegistry;
+        this.resultCache = resultCache;
+    }
+
+    public void save(Order order) {
+        em.persist(order);
+    }
+
+    public Order findOne(Long id) {
+        return em.find(Order.class, id);
+    }
+
+    public List<Order> findAll() {
+        return em.createQuery("select o from Order o", Order.class)
+                .getResultList();
+    }
+
+    // 검색 조건 조합(쿼리 모양)마다 JPQL 을 한 번만 만들어 컴파일해두고, 호출 시에는 파라미터만 바인딩
+    // 예전처럼 매 호출마다 문자열을 이어붙이지 않음
+    public List<Order> findAllByString(OrderSearch orderSearch) {
+        return search(orderSearch);
+    }
+
+    /**
+     * JPA Criteria
+     * - 매 요청마다 CriteriaQuery 를 새로 만들고 JPQL 로 변환하는 비용이 들어서 findAllByString 과 같은 캐시를 탐
+     * - 회원 이름은 Criteria 버전과 같게 포함(like %name%) 검색
+     */
+    public List<Order> findAllByCriteria(OrderSearch orderSearch) {
+        OrderSearch containsSearch = new OrderSearch();
+        containsSearch.setOrderStatus(orderSearch.getOrderStatus());
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            containsSearch.setMemberName("%" + orderSearch.getMemberName() + "%");
+        }
+        return search(containsSearch);
+    }
+
+    // 같은 검색이 대시보드에서 반복되므로 검색 결과의 주문 id 목록을 캐시
+    // 캐시 적중 시에는 like 검색 대신 id 로만 조회하고, 주문/회원이 바뀌면 OrderSearchCacheInvalidator 가 해당 키만 지움
+    private List<Order> search(OrderSearch orderSearch) {
+        OrderSearchKey key = OrderSearchKey.of(orderSearch);
+        List<Long> cachedIds = resultCache.get(key);
+        if (cachedIds != null) {
+            return findAllByIds(cachedIds);
+        }
+
+        // 조회하는 사이에 무효화가 일어났으면 put 이 무시되어 옛날 결과가 캐시에 남지 않음
+        long stamp = resultCache.stamp();
+        List<Order> orders = queryRegistry.createQuery(em, orderSearch)
+                .setMaxResults(1000)
+                .getResultList();
+        resultCache.put(key, orders.stream().map(Order::getId).collect(Collectors.toList()), stamp);
+        return orders;
+    }
+
+    private List<Order> findAllByIds(List<Long> orderIds) {
+        List<Order> orders = InClauseBatcher.query(orderIds, chunk -> em.createQuery(
+                        "select o from Order o" +
+                                " where o.id in :orderIds", Order.class)
+                .setParameter("orderIds", chunk)
+                .getResultList());
+        return sortByIds(orderIds, orders);
+    }
+
+    // in 절 결과는 순서가 보장되지 않으므로 id 목록 순서대로 다시 정렬
+    private List<Order> sortByIds(List<Long> orderIds, List<Order> orders) {
+        Map<Long, Order> orderMap = orders.stream()
+                .collect(Collectors.toMap(Order::getId, o -> o, (a, b) -> a));
+        return orderIds.stream()
+                .map(orderMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // order 를 select 하는 동시에 member, delivery 한 번에 다 넣고 조회
+    public List<Order> findAllWithMemberDelivery() {
+        return em.createQuery(
+                "select o from Order o" +
+                        " join fetch o.member m" +
+                        " join fetch o.delivery d", Order.class)
+                .getResultList();
+    }
+    // distinct 1) db에 distinct 명령어 날려줌 2) 컬렉션에 중복인 행이 있으면 걸러서 리턴해줌
+    // 결국 distinct 사용하는 이유: order와 orderItems 를 1대다로 조인하기 때문
+    // 그러나 fetch join의 치명적 단점: 페이징 불가 (limit offset 등 불가)
+    public List<Order> findAllWithItem() {
+        return em.createQuery(
+                "select distinct o from Order o" +
+                        " join fetch o.member m" +
+                        " join fetch o.delivery d" +
+                        " join fetch o.orderItems oi" +
+                        " join fetch oi.item i", Order.class)
+                .getResultList();
+    }
+
+    // findAllWithItem 에 페이징을 걸면 하이버네이트가 경고 로그를 남기고 전체를 메모리에 올려 페이징함
+    // 그래서 2단계로 나눔
+    // 1) 컬렉션 조인 없이 주문 id 만 DB 에서 limit offset 으로 페이징
+    // 2) 그 id 들만 in 절로 컬렉션까지 한 번에 페치 조인 -> 메모리에는 한 페이지 분량만 올라옴
+    public List<Order> findAllWithItem(int offset, int limit) {
+        List<Long> orderIds = em.createQuery(
+                        "select o.id from Order o" +
+                                " order by o.id desc", Long.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Order> orders = em.createQuery(
+                        "select distinct o from Order o" +
+                                " join fetch o.member m" +
+                                " join fetch o.delivery d" +
+                                // 주문상품이 없는 주문도 페이지에서 빠지지 않도록 컬렉션은 외부 조인
+                                " left join fetch o.orderItems oi" +
+                                " left join fetch oi.item i" +
+                                " where o.id in :orderIds", Order.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+
+        // 1단계의 id 순서대로 다시 정렬
+        return sortByIds(orderIds, orders);
+    }
+
+    public List<OrderSimpleQueryDto> findOrderDtos() {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d", OrderSimpleQueryDto.class)
+                .getResultList();
+    }
+
+    // 일대다 패치 조인인 findAllWithItem 메서드만 페이징 불가하고, 아래는 일대일 패치 조인이므로 페이징 가능
+    public List<Order> findAllWithMemberDelivery(int offset, int limit) {
+        return em.createQuery(
+                        "select o from Order o" , Order.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+        // To-one(일대일) 관계는 아래처럼 축약하여 적는 것도 가능함
+        // defalut_batch_fetch_size의 영향을 받아서 최적화가 가능함
+//        return em.createQuery(
+//                        "select o from Order o" +
+//                                " join fetch o.member m" +
+//                                " join fetch o.delivery d", Order.class)
+//                .setFirstResult(offset)
+//                .setMaxResults(limit)
+//                .getResultList();
+    }
+
+    // offset 방식은 DB가 offset 앞의 행을 전부 읽고 버려야 해서 뒤 페이지로 갈수록 느려짐
+    // 키셋(커서) 방식은 마지막으로 본 (orderDate, order_id) 다음부터 인덱스를 타고 바로 읽으므로 페이지 깊이와 상관없이 비용이 일정함
+    // 컬렉션(orderItems)은 여기서 조인하지 않고 @BatchSize(size = 1000)으로 in 쿼리 1번에 가져옴
+    public List<Order> findAllWithMemberDelivery(OrderCursor cursor, int limit) {
+        String jpql = "select o from Order o" +
+                " join fetch o.member m" +
+                " join fetch o.delivery d";
+        if (cursor != null) {
+            // 최신 주문부터 내려가므로 새 주문이 들어와도 이미 본 페이지 뒤쪽은 밀리지 않음
+            jpql += " where o.orderDate < :orderDate" +
+                    " or (o.orderDate = :orderDate and o.id < :orderId)";
+        }
+        jpql += " order by o.orderDate desc, o.id desc";
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+                .setMaxResults(limit);
+        if (cursor != null) {
+            query.setParameter("orderDate", cursor.getOrderDate());
+            query.setParameter("orderId", cursor.getOrderId());
+        }
+        return query.getResultList();
+    }
+}
+
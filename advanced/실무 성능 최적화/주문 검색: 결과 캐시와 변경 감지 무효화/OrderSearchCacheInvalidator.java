@@ -0,0 +1,103 @@
+package jpabook.jpashop.cache;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.Objects;
+
+/**
+ * 주문 검색 결과 캐시 무효화
+ * - 커밋이 끝난 뒤에 실행되는 하이버네이트 이벤트 리스너 (롤백된 변경으로는 캐시를 지우지 않음)
+ * - 주문 저장: 새 주문의 상태/회원 이름에 맞는 검색만 무효화
+ * - 주문 상태 변경(Order.cancel() 등): 변경 전 또는 변경 후 상태로 검색한 결과만 무효화
+ * - 회원 이름 변경: 변경 전 또는 변경 후 이름이 패턴에 걸리는 검색만 무효화
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderSearchCacheInvalidator implements PostCommitInsertEventListener, PostCommitUpdateEventListener {
+
+    private final EntityManagerFactory emf;
+    private final OrderSearchResultCache resultCache;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Order) {
+            Order order = (Order) event.getEntity();
+            String memberName = order.getMember() != null && Hibernate.isInitialized(order.getMember())
+                    ? order.getMember().getName() : null;
+            resultCache.invalidateIf(key -> key.matches(order.getStatus(), memberName));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Order) {
+            int index = propertyIndex(event.getPersister(), "status");
+            OrderStatus newStatus = (OrderStatus) event.getState()[index];
+            OrderStatus oldStatus = event.getOldState() == null ? null : (OrderStatus) event.getOldState()[index];
+            if (event.getOldState() != null && Objects.equals(oldStatus, newStatus)) {
+                return;
+            }
+            // 상태 조건이 없는 검색은 상태가 바뀌어도 결과가 같음
+            resultCache.invalidateIf(key -> key.getOrderStatus() != null
+                    && (oldStatus == null || key.getOrderStatus() == oldStatus || key.getOrderStatus() == newStatus));
+        } else if (event.getEntity() instanceof Member) {
+            int index = propertyIndex(event.getPersister(), "name");
+            String newName = (String) event.getState()[index];
+            String oldName = event.getOldState() == null ? null : (String) event.getOldState()[index];
+            if (event.getOldState() != null && Objects.equals(oldName, newName)) {
+                return;
+            }
+            // 이름 조건이 없는 검색은 이름이 바뀌어도 결과가 같음
+            resultCache.invalidateIf(key -> key.getMemberNamePattern() != null
+                    && (key.matchesMemberName(oldName) || key.matchesMemberName(newName)));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        Class<?> entityClass = persister.getMappedClass();
+        return Order.class.isAssignableFrom(entityClass) || Member.class.isAssignableFrom(entityClass);
+    }
+
+    private int propertyIndex(EntityPersister persister, String propertyName) {
+        String[] propertyNames = persister.getPropertyNames();
+        for (int i = 0; i < propertyNames.length; i++) {
+            if (propertyNames[i].equals(propertyName)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("property not found: " + propertyName);
+    }
+}
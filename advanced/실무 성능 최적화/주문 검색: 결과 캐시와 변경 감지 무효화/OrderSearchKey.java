@@ -0,0 +1,71 @@
+package jpabook.jpashop.cache;
+
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderSearch;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.StringUtils;
+
+import java.util.regex.Pattern;
+
+/**
+ * 주문 검색 결과 캐시 키
+ * - 실제로 바인딩되는 값(주문 상태, 회원 이름 like 패턴) 기준으로 정규화한다.
+ *   그래서 findAllByCriteria("kim") 과 findAllByString("%kim%") 는 같은 키가 된다.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class OrderSearchKey {
+
+    private final OrderStatus orderStatus;
+    private final String memberNamePattern;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final Pattern memberNameRegex;
+
+    private OrderSearchKey(OrderStatus orderStatus, String memberNamePattern) {
+        this.orderStatus = orderStatus;
+        this.memberNamePattern = memberNamePattern;
+        this.memberNameRegex = memberNamePattern == null ? null : toRegex(memberNamePattern);
+    }
+
+    public static OrderSearchKey of(OrderSearch orderSearch) {
+        String name = StringUtils.hasText(orderSearch.getMemberName()) ? orderSearch.getMemberName() : null;
+        return new OrderSearchKey(orderSearch.getOrderStatus(), name);
+    }
+
+    /**
+     * 이 상태/이름을 가진 주문이 이 검색 결과에 들어갈 수 있는지
+     * - 값을 모르면(null) 들어갈 수 있다고 보고 무효화 쪽으로 판단한다.
+     */
+    public boolean matches(OrderStatus status, String memberName) {
+        return matchesStatus(status) && matchesMemberName(memberName);
+    }
+
+    public boolean matchesStatus(OrderStatus status) {
+        return orderStatus == null || status == null || orderStatus == status;
+    }
+
+    public boolean matchesMemberName(String memberName) {
+        return memberNameRegex == null || memberName == null || memberNameRegex.matcher(memberName).matches();
+    }
+
+    // JPQL like 패턴(% = 여러 글자, _ = 한 글자)을 정규식으로 변환
+    private static Pattern toRegex(String likePattern) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : likePattern.toCharArray()) {
+            if (c == '%' || c == '_') {
+                regex.append(Pattern.quote(literal.toString())).append(c == '%' ? ".*" : ".");
+                literal.setLength(0);
+            } else {
+                literal.append(c);
+            }
+        }
+        regex.append(Pattern.quote(literal.toString()));
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+}
@@ -0,0 +1,115 @@
+package jpabook.jpashop.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * 주문 검색 결과(주문 id 목록) 캐시
+ * - 엔티티가 아니라 id 목록만 저장하므로 영속성 컨텍스트와 엮이지 않는다.
+ * - 주문/회원 변경 시 OrderSearchCacheInvalidator 가 영향받는 키만 골라서 지운다.
+ * - 만료 시간은 무효화가 빠졌을 때를 대비한 안전장치
+ */
+@Component
+public class OrderSearchResultCache {
+
+    private final Cache<OrderSearchKey, Entry> cache = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .recordStats()
+            .build();
+
+    // 무효화가 일어날 때마다 증가, 조회 도중 무효화된 결과를 캐시에 넣지 않기 위해 사용
+    private final AtomicLong invalidationStamp = new AtomicLong();
+    private final LongAdder invalidatedEntries = new LongAdder();
+    private final LongAdder servedCount = new LongAdder();
+    private final LongAdder servedAgeMillis = new LongAdder();
+    private final LongAccumulator maxServedAgeMillis = new LongAccumulator(Long::max, 0);
+
+    public List<Long> get(OrderSearchKey key) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        long age = System.currentTimeMillis() - entry.createdAt;
+        servedCount.increment();
+        servedAgeMillis.add(age);
+        maxServedAgeMillis.accumulate(age);
+        return entry.orderIds;
+    }
+
+    public long stamp() {
+        return invalidationStamp.get();
+    }
+
+    /**
+     * stamp 를 읽은 뒤로 무효화가 있었으면 저장하지 않는다.
+     * 저장 직후 무효화가 끼어든 경우도 다시 확인해서 지운다.
+     */
+    public void put(OrderSearchKey key, List<Long> orderIds, long stamp) {
+        if (stamp != invalidationStamp.get()) {
+            return;
+        }
+        cache.put(key, new Entry(List.copyOf(orderIds), System.currentTimeMillis()));
+        if (stamp != invalidationStamp.get()) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidateIf(Predicate<OrderSearchKey> affected) {
+        invalidationStamp.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> {
+            boolean remove = affected.test(key);
+            if (remove) {
+                invalidatedEntries.increment();
+            }
+            return remove;
+        });
+    }
+
+    public ResultCacheStats getStats() {
+        CacheStats stats = cache.stats();
+        long served = servedCount.sum();
+        return new ResultCacheStats(
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                invalidatedEntries.sum(),
+                served == 0 ? 0 : servedAgeMillis.sum() / served,
+                maxServedAgeMillis.get());
+    }
+
+    private static class Entry {
+        private final List<Long> orderIds;
+        private final long createdAt;
+
+        Entry(List<Long> orderIds, long createdAt) {
+            this.orderIds = orderIds;
+            this.createdAt = createdAt;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ResultCacheStats {
+        private long size;
+        private long hitCount;
+        private long missCount;
+        private double hitRatio;
+        private long invalidatedEntries;
+        // 캐시에서 내려준 결과가 평균/최대 몇 ms 전에 만들어진 것인지 (staleness)
+        private long avgServedAgeMillis;
+        private long maxServedAgeMillis;
+    }
+}
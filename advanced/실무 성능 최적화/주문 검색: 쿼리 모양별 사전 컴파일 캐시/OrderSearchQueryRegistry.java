@@ -0,0 +1,130 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * OrderSearch 동적 쿼리의 모양(쿼리 shape) 캐시
+ * - 켜진 검색 조건들을 비트마스크로 만들어 쿼리 모양을 구분한다. (상태만 = 01, 이름만 = 10, 둘 다 = 11)
+ * - 모양별로 처음 한 번만 JPQL 을 만들고 파싱/번역까지 끝낸 뒤 named query 로 등록해 둔다.
+ * - 이후 같은 모양의 검색은 등록된 쿼리를 꺼내서 파라미터만 바인딩한다.
+ * - 검색 조건이 추가되면 Condition 에 한 줄만 추가하면 된다.
+ */
+@Slf4j
+@Component
+public class OrderSearchQueryRegistry {
+
+    private static final String QUERY_NAME_PREFIX = "OrderSearch.shape.";
+
+    private final ConcurrentMap<Integer, String> queryNames = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder compileCount = new LongAdder();
+    private final LongAdder compileNanos = new LongAdder();
+
+    enum Condition {
+        //주문 상태 검색
+        STATUS("o.status = :status", s -> s.getOrderStatus() != null) {
+            @Override
+            void bind(TypedQuery<Order> query, OrderSearch orderSearch) {
+                query.setParameter("status", orderSearch.getOrderStatus());
+            }
+        },
+        //회원 이름 검색
+        MEMBER_NAME("m.name like :name", s -> StringUtils.hasText(s.getMemberName())) {
+            @Override
+            void bind(TypedQuery<Order> query, OrderSearch orderSearch) {
+                query.setParameter("name", orderSearch.getMemberName());
+            }
+        };
+
+        private final String jpql;
+        private final Predicate<OrderSearch> active;
+
+        Condition(String jpql, Predicate<OrderSearch> active) {
+            this.jpql = jpql;
+            this.active = active;
+        }
+
+        int bit() {
+            return 1 << ordinal();
+        }
+
+        abstract void bind(TypedQuery<Order> query, OrderSearch orderSearch);
+    }
+
+    public TypedQuery<Order> createQuery(EntityManager em, OrderSearch orderSearch) {
+        int shape = shapeOf(orderSearch);
+        String queryName = queryNames.get(shape);
+        if (queryName != null) {
+            hitCount.increment();
+        } else {
+            queryName = queryNames.computeIfAbsent(shape, s -> compile(em, s));
+        }
+
+        TypedQuery<Order> query = em.createNamedQuery(queryName, Order.class);
+        for (Condition condition : Condition.values()) {
+            if ((shape & condition.bit()) != 0) {
+                condition.bind(query, orderSearch);
+            }
+        }
+        return query;
+    }
+
+    public QueryShapeStats getStats() {
+        return new QueryShapeStats(queryNames.size(), hitCount.sum(), compileCount.sum(), compileNanos.sum() / 1_000);
+    }
+
+    private int shapeOf(OrderSearch orderSearch) {
+        int shape = 0;
+        for (Condition condition : Condition.values()) {
+            if (condition.active.test(orderSearch)) {
+                shape |= condition.bit();
+            }
+        }
+        return shape;
+    }
+
+    private String compile(EntityManager em, int shape) {
+        long start = System.nanoTime();
+
+        StringBuilder jpql = new StringBuilder("select o from Order o join o.member m");
+        boolean isFirstCondition = true;
+        for (Condition condition : Condition.values()) {
+            if ((shape & condition.bit()) == 0) {
+                continue;
+            }
+            jpql.append(isFirstCondition ? " where " : " and ").append(condition.jpql);
+            isFirstCondition = false;
+        }
+
+        // createQuery 시점에 하이버네이트가 JPQL 을 파싱/번역하고, 그 결과를 named query 로 등록
+        String queryName = QUERY_NAME_PREFIX + shape;
+        em.getEntityManagerFactory().addNamedQuery(queryName, em.createQuery(jpql.toString(), Order.class));
+
+        long elapsed = System.nanoTime() - start;
+        compileCount.increment();
+        compileNanos.add(elapsed);
+        log.debug("compiled order search shape={} in {}us: {}", Integer.toBinaryString(shape), elapsed / 1_000, jpql);
+        return queryName;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class QueryShapeStats {
+        private int shapes;
+        private long hitCount;
+        private long compileCount;
+        private long compileTimeMicros;
+    }
+}
@@ -0,0 +1,253 @@
+package jpabook.jpashop.repository.order.query;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderQueryRepository {
+
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private final EntityManager em;
+
+    public List<OrderQueryDto> findOrderQueryDtos() {
+        List<OrderQueryDto> result = findOrders();
+        result.forEach( o -> {
+            List<OrderItemQueryDto> orderItems = findOrderItems(o.getOrderId());
+            o.setOrderItems(orderItems);
+        });
+        return result;
+    }
+    // 이전의 findOrderQueryDtos의 한계인 반복문을 계속 돈다는 것을 해결하기 위함
+    public List<OrderQueryDto> findAllByDto_optimization() {
+        List<OrderQueryDto> result = findOrders();  // 쿼리 1번
+
+        // result 가져온 것을 in 절로 한 번에 땡기기 가능
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(result));
+
+        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+
+        return result;
+    }
+
+    public List<OrderFlatDto> findAllByDto_flat() {
+        return createFlatQuery().getResultList();
+    }
+
+    // 플랫 데이터를 한 줄씩 읽으면서 주문 id 가 바뀔 때마다 OrderQueryDto 하나를 완성함
+    // groupingBy 처럼 전체를 HashMap 에 올릴 필요 없이 조립 중인 주문 1건만 들고 있으면 됨
+    // 쿼리는 여전히 1번이고, 결과 모양은 V5 와 동일
+    public List<OrderQueryDto> findAllByDto_flatNested() {
+        List<OrderQueryDto> result = new ArrayList<>();
+        try (Stream<OrderFlatDto> flats = createFlatQuery().getResultStream()) {
+            OrderFlatAssembler.assemble(flats.iterator(), result::add);
+        }
+        return result;
+    }
+
+    // 전체 주문 내보내기용
+    // getResultList 는 전체 행을 List 로 만들어야 끝나므로, 전방향 전용 커서(ScrollableResults)로 fetch size 만큼씩 읽음
+    // 조립이 끝난 주문은 바로 consumer 로 넘기므로 행 수와 상관없이 조립 중인 주문 1건만 메모리에 있음
+    // (select new 프로젝션이라 영속성 컨텍스트에 엔티티가 쌓이지 않음 -> session.clear() 불필요)
+    // (MySQL 드라이버는 fetch size 를 Integer.MIN_VALUE 로 줘야 실제로 스트리밍함)
+    @Transactional(readOnly = true)
+    public void scrollAllByDto_flat(Consumer<OrderQueryDto> consumer) {
+        Session session = em.unwrap(Session.class);
+        try (ScrollableResults flats = session.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " join o.orderItems oi" +
+                                " join oi.item i" +
+                                " order by o.id, oi.id", OrderFlatDto.class)
+                .setFetchSize(EXPORT_FETCH_SIZE)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+
+            Iterator<OrderFlatDto> iterator = new Iterator<OrderFlatDto>() {
+                private Boolean hasNext;
+
+                @Override
+                public boolean hasNext() {
+                    if (hasNext == null) {
+                        hasNext = flats.next();
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public OrderFlatDto next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    hasNext = null;
+                    return (OrderFlatDto) flats.get(0);
+                }
+            };
+            OrderFlatAssembler.assemble(iterator, consumer);
+        }
+    }
+
+    // 같은 주문의 행들이 연속해서 나와야 스트리밍 조립이 가능하므로 o.id 로 정렬
+    private TypedQuery<OrderFlatDto> createFlatQuery() {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+                        " from Order o" +
+                        " join o.member m" +
+                        " join o.delivery d" +
+                        " join o.orderItems oi" +
+                        " join oi.item i" +
+                        " order by o.id, oi.id", OrderFlatDto.class);
+    }
+
+    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
+        List<OrderItemQueryDto> orderItems = em.createQuery(  // 쿼리 1번
+                        "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+                                " from OrderItem oi" +
+                                " join oi.item i" +
+                                " where oi.order.id in :orderIds", OrderItemQueryDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
+                .collect(Collectors.groupingBy(orderItemQueryDto -> orderItemQueryDto.getOrderId()));
+        return orderItemMap;
+    }
+
+    private List<Long> toOrderIds(List<OrderQueryDto> result) {
+        List<Long> orderIds = result.stream()
+                .map(o -> o.getOrderId())
+                .collect(Collectors.toList());
+        return orderIds;
+    }
+
+    private List<OrderItemQueryDto> findOrderItems (Long orderId) {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+                        " from OrderItem oi" +
+                        " join oi.item i" +
+                        " where oi.order.id = :orderId", OrderItemQueryDto.class)
+                .setParameter("orderId", orderId)
+                .getResultList();
+    }
+
+    public List<OrderQueryDto> findOrders() {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d", OrderQueryDto.class)
+                .getResultList();
+    }
+
+//    private final EntityManager em;
+//
+//    /**
+//     * 컬렉션은 별도로 조회
+//     * Query: 루트 1번, 컬렉션 N 번
+//     * 단건 조회에서 많이 사용하는 방식
+//     */
+//    public List<OrderQueryDto> findOrderQueryDtos() {
+//        //루트 조회(toOne 코드를 모두 한번에 조회)
+//        List<OrderQueryDto> result = findOrders();
+//
+//        //루프를 돌면서 컬렉션 추가(추가 쿼리 실행)
+//        result.forEach(o -> {
+//            List<OrderItemQueryDto> orderItems = findOrderItems(o.getOrderId());
+//            o.setOrderItems(orderItems);
+//        });
+//        return result;
+//    }
+//
+//    /**
+//     * 1:N 관계(컬렉션)를 제외한 나머지를 한번에 조회
+//     */
+//    private List<OrderQueryDto> findOrders() {
+//        return em.createQuery(
+//                "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+//                        " from Order o" +
+//                        " join o.member m" +
+//                        " join o.delivery d", OrderQueryDto.class)
+//                .getResultList();
+//    }
+//
+//    /**
+//     * 1:N 관계인 orderItems 조회
+//     */
+//    private List<OrderItemQueryDto> findOrderItems(Long orderId) {
+//        return em.createQuery(
+//                "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+//                        " from OrderItem oi" +
+//                        " join oi.item i" +
+//                        " where oi.order.id = : orderId", OrderItemQueryDto.class)
+//                .setParameter("orderId", orderId)
+//                .getResultList();
+//    }
+//
+//    /**
+//     * 최적화
+//     * Query: 루트 1번, 컬렉션 1번
+//     * 데이터를 한꺼번에 처리할 때 많이 사용하는 방식
+//     *
+//     */
+//    public List<OrderQueryDto> findAllByDto_optimization() {
+//
+//        //루트 조회(toOne 코드를 모두 한번에 조회)
+//        List<OrderQueryDto> result = findOrders();
+//
+//        //orderItem 컬렉션을 MAP 한방에 조회
+//        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(result));
+//
+//        //루프를 돌면서 컬렉션 추가(추가 쿼리 실행X)
+//        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+//
+//        return result;
+//    }
+//
+//    private List<Long> toOrderIds(List<OrderQueryDto> result) {
+//        return result.stream()
+//                .map(o -> o.getOrderId())
+//                .collect(Collectors.toList());
+//    }
+//
+//    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
+//        List<OrderItemQueryDto> orderItems = em.createQuery(
+//                "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+//                        " from OrderItem oi" +
+//                        " join oi.item i" +
+//                        " where oi.order.id in :orderIds", OrderItemQueryDto.class)
+//                .setParameter("orderIds", orderIds)
+//                .getResultList();
+//
+//        return orderItems.stream()
+//                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+//    }
+//
+//    public List<OrderFlatDto> findAllByDto_flat() {
+//        return em.createQuery(
+//                "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+//                        " from Order o" +
+//                        " join o.member m" +
+//                        " join o.delivery d" +
+//                        " join o.orderItems oi" +
+//                        " join oi.item i", OrderFlatDto.class)
+//                .getResultList();
+//    }
+}
\ No newline at end of file
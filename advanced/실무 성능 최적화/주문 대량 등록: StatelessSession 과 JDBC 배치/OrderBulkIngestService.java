@@ -0,0 +1,194 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.cache.OrderSearchResultCache;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.InClauseBatcher;
+import lombok.Data;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 대량 등록 (파트너 주문 피드 재처리용)
+ * - em.persist 는 주문마다 영속성 컨텍스트 등록, 변경 감지, insert 1번씩이라 대량 등록에 맞지 않음
+ * - StatelessSession 은 영속성 컨텍스트가 없어서 insert 를 바로 JDBC 배치에 쌓는다.
+ * - 배치가 끊기지 않도록 배송 -> 주문 -> 주문상품 순서로 테이블별로 모아서 insert
+ * - 재고는 주문상품마다 item.removeStock 하지 않고, 상품별로 수량을 합쳐 조건부 update 를 배치로 한 번에 실행
+ * - 한 번 호출(청크) = 트랜잭션 1개, 재고가 모자라면 청크 전체 롤백
+ * - StatelessSession 은 2차 캐시와 하이버네이트 이벤트를 거치지 않으므로 트랜잭션이 끝나면 직접 맞춰준다.
+ *   (재고를 바꾼 상품은 2차 캐시에서 지우고, 커밋되면 주문 검색 결과 캐시도 무효화)
+ */
+@Service
+public class OrderBulkIngestService {
+
+    private final SessionFactory sessionFactory;
+    private final OrderSearchResultCache orderSearchResultCache;
+
+    public OrderBulkIngestService(EntityManagerFactory emf, OrderSearchResultCache orderSearchResultCache) {
+        this.sessionFactory = emf.unwrap(SessionFactory.class);
+        this.orderSearchResultCache = orderSearchResultCache;
+    }
+
+    public int ingest(List<BulkOrder> bulkOrders) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                Map<Long, Item> items = findItems(session, bulkOrders);
+                syncCachesAfterCompletion(tx, items.keySet());
+                decreaseStock(session, bulkOrders);
+
+                List<Order> orders = new ArrayList<>();
+                for (BulkOrder bulkOrder : bulkOrders) {
+                    orders.add(toOrder(bulkOrder, items));
+                }
+                orders.forEach(o -> session.insert(o.getDelivery()));
+                orders.forEach(session::insert);
+                orders.forEach(o -> o.getOrderItems().forEach(session::insert));
+
+                tx.commit();
+                return orders.size();
+            } catch (RuntimeException e) {
+                tx.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void syncCachesAfterCompletion(Transaction tx, Set<Long> itemIds) {
+        tx.registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // JDBC 로 바꾼 재고는 2차 캐시에 반영되지 않으므로 캐시된 상품을 지움 (롤백이었다면 다시 읽을 뿐)
+                itemIds.forEach(itemId -> sessionFactory.getCache().evict(Item.class, itemId));
+                if (status == Status.STATUS_COMMITTED) {
+                    // 회원 이름은 조회하지 않았으므로 상태(ORDER)로만 골라서 지움
+                    orderSearchResultCache.invalidateIf(key -> key.matchesStatus(OrderStatus.ORDER));
+                }
+            }
+        });
+    }
+
+    private Order toOrder(BulkOrder bulkOrder, Map<Long, Item> items) {
+        // 회원은 외래 키만 필요하므로 조회하지 않고 id 만 채운 객체를 사용
+        Member member = new Member();
+        member.setId(bulkOrder.getMemberId());
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(new Address(bulkOrder.getCity(), bulkOrder.getStreet(), bulkOrder.getZipcode()));
+        delivery.setStatus(DeliveryStatus.READY);
+
+        List<OrderItem> orderItems = bulkOrder.getItems().stream()
+                .map(line -> {
+                    Item item = items.get(line.getItemId());
+                    return OrderItem.createBulkOrderItem(item, item.getPrice(), line.getCount());
+                })
+                .collect(Collectors.toList());
+        return Order.createBulkOrder(member, delivery, bulkOrder.getOrderDate(), orderItems);
+    }
+
+    private Map<Long, Item> findItems(StatelessSession session, List<BulkOrder> bulkOrders) {
+        Set<Long> itemIds = bulkOrders.stream()
+                .flatMap(o -> o.getItems().stream())
+                .map(BulkOrderLine::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = InClauseBatcher.query(itemIds, chunk -> session.createQuery(
+                        "select i from Item i where i.id in :itemIds", Item.class)
+                .setParameter("itemIds", chunk)
+                .getResultList())
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (Long itemId : itemIds) {
+            if (!items.containsKey(itemId)) {
+                throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + itemId);
+            }
+        }
+        return items;
+    }
+
+    // 상품 id 순서로 update 해서 동시에 들어온 다른 청크와 서로 락을 기다리는(deadlock) 일이 없게 함
+    private void decreaseStock(StatelessSession session, List<BulkOrder> bulkOrders) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        bulkOrders.stream()
+                .flatMap(o -> o.getItems().stream())
+                .forEach(line -> quantities.merge(line.getItemId(), line.getCount(), Integer::sum));
+
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "update item set stock_quantity = stock_quantity - ? where item_id = ? and stock_quantity >= ?")) {
+                for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                    ps.setInt(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                    ps.setInt(3, entry.getValue());
+                    ps.addBatch();
+                }
+                int[] updated = ps.executeBatch();
+                int i = 0;
+                for (Long itemId : quantities.keySet()) {
+                    if (updated[i++] == 0) {
+                        throw new NotEnoughStockException("need more stock. itemId=" + itemId);
+                    }
+                }
+            }
+        });
+    }
+
+    @Data
+    public static class BulkOrder {
+        private Long memberId;
+        private LocalDateTime orderDate;
+        private String city;
+        private String street;
+        private String zipcode;
+        private List<BulkOrderLine> items = new ArrayList<>();
+
+        // 조건부 update 는 count 가 음수면 stock_quantity >= -n 이 항상 참이라 재고가 늘어남 -> 청크에 넣기 전에 거름
+        public void validate() {
+            if (memberId == null) {
+                throw new IllegalArgumentException("memberId 가 없습니다.");
+            }
+            if (items == null || items.isEmpty()) {
+                throw new IllegalArgumentException("items 가 없습니다.");
+            }
+            for (BulkOrderLine line : items) {
+                if (line == null || line.getItemId() == null) {
+                    throw new IllegalArgumentException("itemId 가 없습니다.");
+                }
+                if (line.getCount() <= 0) {
+                    throw new IllegalArgumentException("주문 수량은 1 이상이어야 합니다. itemId=" + line.getItemId());
+                }
+            }
+        }
+    }
+
+    @Data
+    public static class BulkOrderLine {
+        private Long itemId;
+        private int count;
+    }
+}
@@ -0,0 +1,60 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Repository
+@RequiredArgsConstructor
+public class ItemRepository {
+
+    private final EntityManager em;
+
+    public void save(Item item) {
+        if (item.getId() == null) {
+            em.persist(item);
+        } else {
+            em.merge(item);
+        }
+    }
+
+    public Item findOne(Long id) {
+        return em.find(Item.class, id);
+    }
+
+    public List<Item> findAll() {
+        return em.createQuery("select i from Item i", Item.class)
+                .getResultList();
+    }
+
+    /**
+     * 상품별 재고 일괄 증가 (키: 상품 id, 값: 늘릴 수량)
+     * - 엔티티를 읽지 않고 현재 값에 더하는 update 를 JDBC 배치 1번으로 실행
+     * - 상품 id 순서로 update 해서 다른 트랜잭션과 락 순서가 엇갈리지 않게 함
+     * - 영속성 컨텍스트와 2차 캐시는 갱신되지 않으므로 호출하는 쪽에서 맞춰줘야 함
+     */
+    public void addStocks(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> ordered = new TreeMap<>(quantities);
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "update item set stock_quantity = stock_quantity + ? where item_id = ?")) {
+                for (Map.Entry<Long, Integer> entry : ordered.entrySet()) {
+                    ps.setInt(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.OrderCancelSearch;
+import jpabook.jpashop.service.OrderBulkCancelService;
+import jpabook.jpashop.service.OrderBulkIngestService;
+import jpabook.jpashop.service.OrderBulkIngestService.BulkOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 주문 대량 등록 API
+ * - 요청 본문은 NDJSON (한 줄에 주문 하나)
+ *   {"memberId":1,"city":"서울","street":"1","zipcode":"11111","items":[{"itemId":3,"count":2}]}
+ * - 본문 전체를 List 로 읽지 않고 한 줄씩 읽어서 CHUNK_SIZE 개마다 트랜잭션 1개로 등록
+ * - 줄마다 memberId, itemId, count(1 이상)를 검사하고, 잘못된 줄이 있으면 그 줄이 든 청크는 등록하지 않음
+ * - 중간에 실패하면 이미 커밋된 청크는 그대로 두고, 몇 건까지 등록됐는지와 실패 사유를 돌려준다. (그 다음 줄부터 재전송)
+ *   잘못된 줄, 없는 회원/상품은 400, 재고 부족은 409, 그 밖의 실패는 500 (본문의 ingested 는 같음)
+ *
+ * 주문 대량 취소 API
+ * - 조건(회원, 주문일시 범위)에 맞는 ORDER 상태 주문을 한 트랜잭션으로 모두 취소
+ * - 조건이 하나도 없으면 400
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class OrderBulkApiController {
+
+    private static final int CHUNK_SIZE = 1_000;
+
+    private final OrderBulkIngestService orderBulkIngestService;
+    private final OrderBulkCancelService orderBulkCancelService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(value = "/api/orders/bulk", consumes = "application/x-ndjson")
+    public ResponseEntity<BulkResult> ingest(HttpServletRequest request) throws IOException {
+        long start = System.currentTimeMillis();
+        ObjectReader reader = objectMapper.readerFor(BulkOrder.class);
+        List<BulkOrder> chunk = new ArrayList<>(CHUNK_SIZE);
+        int ingested = 0;
+        int lineNumber = 0;
+
+        try (BufferedReader body = request.getReader()) {
+            String line;
+            while ((line = body.readLine()) != null) {
+                lineNumber++;
+                if (!StringUtils.hasText(line)) {
+                    continue;
+                }
+                BulkOrder bulkOrder = reader.readValue(line);
+                try {
+                    bulkOrder.validate();
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(lineNumber + "번째 줄: " + e.getMessage(), e);
+                }
+                chunk.add(bulkOrder);
+                if (chunk.size() == CHUNK_SIZE) {
+                    ingested += orderBulkIngestService.ingest(chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                ingested += orderBulkIngestService.ingest(chunk);
+            }
+        } catch (JsonProcessingException | IllegalArgumentException | ConstraintViolationException e) {
+            // ConstraintViolationException: 없는 회원 id (외래 키 위반)
+            return failed(HttpStatus.BAD_REQUEST, ingested, start, e);
+        } catch (NotEnoughStockException e) {
+            return failed(HttpStatus.CONFLICT, ingested, start, e);
+        } catch (RuntimeException | IOException e) {
+            return failed(HttpStatus.INTERNAL_SERVER_ERROR, ingested, start, e);
+        }
+        return ResponseEntity.ok(new BulkResult(ingested, System.currentTimeMillis() - start, null));
+    }
+
+    private ResponseEntity<BulkResult> failed(HttpStatus status, int ingested, long start, Exception e) {
+        log.warn("주문 대량 등록 중단: {}건 등록 후 실패", ingested, e);
+        return ResponseEntity.status(status)
+                .body(new BulkResult(ingested, System.currentTimeMillis() - start, e.getMessage()));
+    }
+
+    @PostMapping("/api/orders/bulk-cancel")
+    public BulkCancelResult cancel(@RequestBody OrderCancelSearch search) {
+        if (!search.hasCriteria()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "취소 조건(memberId, orderDateFrom, orderDateTo)이 하나 이상 필요합니다.");
+        }
+        long start = System.currentTimeMillis();
+        int cancelled = orderBulkCancelService.cancelOrders(search);
+        return new BulkCancelResult(cancelled, System.currentTimeMillis() - start);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class BulkResult {
+        private int ingested;
+        private long elapsedMillis;
+        private String error;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class BulkCancelResult {
+        private int cancelled;
+        private long elapsedMillis;
+    }
+}
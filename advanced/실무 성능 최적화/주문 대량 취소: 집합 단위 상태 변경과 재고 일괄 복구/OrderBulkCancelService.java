@@ -0,0 +1,107 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.cache.OrderQueryDtoCache;
+import jpabook.jpashop.cache.OrderSearchResultCache;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.OrderCancelSearch;
+import jpabook.jpashop.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 주문 대량 취소
+ * - Order.cancel() 은 주문마다 주문, 주문상품, 상품을 모두 올리고 상품마다 update 를 1번씩 날림
+ * - 여기서는 엔티티를 올리지 않고
+ *   1) 배송완료(COMP) 주문이 섞여 있는지 쿼리 1번으로 확인 (있으면 Order.cancel() 과 같이 전체 거절)
+ *   2) 주문 상태는 벌크 JPQL update 로 한 번에 CANCEL 로 변경 (update 의 where 에서도 배송완료를 한 번 더 걸러서 그 사이 완료된 배송도 막음)
+ *   3) 재고는 상품별로 수량을 합쳐서 update 배치 1번으로 복구
+ * - 벌크 연산은 영속성 컨텍스트, 2차 캐시, 커밋 후 이벤트를 거치지 않으므로 직접 맞춰준다.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class OrderBulkCancelService {
+
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final OrderRepository orderRepository;
+    private final ItemRepository itemRepository;
+    private final OrderQueryDtoCache orderQueryDtoCache;
+    private final OrderSearchResultCache orderSearchResultCache;
+
+    /**
+     * @return 취소된 주문 수
+     */
+    public int cancelOrders(OrderCancelSearch search) {
+        if (search.getOrderStatus() != OrderStatus.ORDER) {
+            return 0;
+        }
+        // 벌크 연산 전에 아직 반영 안 된 변경을 먼저 DB 에 내림
+        em.flush();
+
+        if (orderRepository.existsCompletedDelivery(search)) {
+            throw new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다.");
+        }
+        List<Long> orderIds = orderRepository.findCancelTargetIds(search);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Integer> restoreCounts = orderRepository.sumOrderCountByItem(orderIds);
+        int cancelled = orderRepository.cancelAll(orderIds);
+        if (cancelled != orderIds.size()) {
+            // 조회와 update 사이에 다른 트랜잭션이 일부를 먼저 취소했거나 배송을 완료함 -> 재고가 잘못 복구되지 않도록 전체 롤백
+            throw new IllegalStateException("취소 대상 주문이 처리 중에 변경되었습니다. 다시 시도해 주세요.");
+        }
+        itemRepository.addStocks(restoreCounts);
+
+        Set<Long> cancelledIds = new HashSet<>(orderIds);
+        refreshManagedEntities(cancelledIds, restoreCounts.keySet());
+        evictCachesAfterCommit(cancelledIds, restoreCounts.keySet());
+        return cancelled;
+    }
+
+    // 이미 영속성 컨텍스트에 올라와 있는 주문/상품만 DB 값으로 다시 읽음 (나머지는 건드리지 않음)
+    private void refreshManagedEntities(Set<Long> orderIds, Set<Long> itemIds) {
+        Map.Entry<Object, EntityEntry>[] entries = em.unwrap(SessionImplementor.class)
+                .getPersistenceContext()
+                .reentrantSafeEntityEntries();
+        for (Map.Entry<Object, EntityEntry> entry : entries) {
+            Object entity = entry.getKey();
+            Object id = entry.getValue().getId();
+            if ((entity instanceof Order && orderIds.contains(id))
+                    || (entity instanceof Item && itemIds.contains(id))) {
+                em.refresh(entity);
+            }
+        }
+    }
+
+    // 커밋 후 리스너가 벌크 update 를 보지 못하므로 커밋이 끝난 뒤 직접 무효화 (롤백되면 그대로 둠)
+    private void evictCachesAfterCommit(Set<Long> orderIds, Set<Long> itemIds) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                itemIds.forEach(itemId -> emf.getCache().evict(Item.class, itemId));
+                // DTO 에는 재고가 없으므로 취소된 주문만 지움
+                orderQueryDtoCache.invalidateIf(order -> orderIds.contains(order.getOrderId()));
+                // 상태 조건이 없는 검색은 상태가 바뀌어도 결과가 같음
+                orderSearchResultCache.invalidateIf(key -> key.getOrderStatus() != null);
+            }
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 대량 취소 대상 조건 (값이 없는 조건은 무시)
+ * - 주문 상태는 ORDER 만 취소 대상이 될 수 있음
+ * - 회원, 주문일시 범위 중 하나는 있어야 함 (조건 없이 보내면 ORDER 주문 전체가 취소됨)
+ */
+@Getter @Setter
+public class OrderCancelSearch {
+
+    private Long memberId;
+    private OrderStatus orderStatus = OrderStatus.ORDER;
+    private LocalDateTime orderDateFrom; // 이상
+    private LocalDateTime orderDateTo;   // 미만
+
+    public boolean hasCriteria() {
+        return memberId != null || orderDateFrom != null || orderDateTo != null;
+    }
+}
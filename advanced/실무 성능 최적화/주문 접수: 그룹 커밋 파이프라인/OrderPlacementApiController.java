@@ -0,0 +1,62 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.service.OrderPlacementPipeline;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 접수 API
+ * - 요청 스레드는 파이프라인에 주문을 넣고 바로 반환 (CompletableFuture -> 서블릿 비동기 처리)
+ * - 묶음 커밋이 끝나면 응답이 나감
+ */
+@RestController
+@RequiredArgsConstructor
+public class OrderPlacementApiController {
+
+    private final OrderPlacementPipeline orderPlacementPipeline;
+
+    @PostMapping("/api/orders")
+    public CompletableFuture<CreateOrderResponse> createOrder(@RequestBody @Valid CreateOrderRequest request) {
+        Map<Long, Integer> itemCounts = request.getItems().stream()
+                .collect(Collectors.toMap(OrderLine::getItemId, OrderLine::getCount, Integer::sum));
+        return orderPlacementPipeline.place(request.getMemberId(), itemCounts)
+                .thenApply(CreateOrderResponse::new);
+    }
+
+    @Data
+    static class CreateOrderRequest {
+        @NotNull
+        private Long memberId;
+        @Valid
+        @NotEmpty
+        private List<OrderLine> items = new ArrayList<>();
+    }
+
+    @Data
+    static class OrderLine {
+        @NotNull
+        private Long itemId;
+        @Positive // 음수 수량은 조건부 update 에서 재고를 늘림
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateOrderResponse {
+        private Long orderId;
+    }
+}
@@ -0,0 +1,250 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.InClauseBatcher;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.OrderRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 접수 그룹 커밋
+ * - 주문마다 트랜잭션 1개면 주문마다 커밋(디스크 fsync)을 기다려야 해서, 부하가 몰리면 커밋 대기 시간이 대부분을 차지
+ * - 동시에 들어온 주문을 최대 max-wait-ms 동안 또는 max-batch-size 개까지 모아서 트랜잭션 1개로 저장
+ *   재고 차감은 상품별로 합쳐서 update 배치 1번, 주문/배송/주문상품 insert 도 JDBC 배치로 묶임
+ * - 커밋이 끝난 뒤에 각 호출자의 future 를 주문 id 로 완료
+ * - 묶음이 실패하면(재고 부족, 없는 회원 등) 그 묶음만 주문 1건씩 다시 처리해서, 실패한 주문만 실패로 돌려줌
+ */
+@Slf4j
+@Service
+public class OrderPlacementPipeline {
+
+    private final EntityManager em;
+    private final OrderRepository orderRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<PlaceOrder> queue;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder batchedOrders = new LongAdder();
+    private final LongAdder fallbackBatchCount = new LongAdder();
+    private final LongAdder failedOrders = new LongAdder();
+
+    public OrderPlacementPipeline(EntityManager em,
+                                  OrderRepository orderRepository,
+                                  ItemRepository itemRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${jpashop.order-pipeline.max-batch-size:100}") int maxBatchSize,
+                                  @Value("${jpashop.order-pipeline.max-wait-ms:5}") long maxWaitMillis,
+                                  @Value("${jpashop.order-pipeline.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${jpashop.order-pipeline.workers:2}") int workerCount) {
+        this.em = em;
+        this.orderRepository = orderRepository;
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::run, "order-pipeline-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        workers.forEach(Thread::start);
+    }
+
+    // 대기열에 남은 주문까지 처리한 뒤 종료
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * 주문 접수 (키: 상품 id, 값: 주문 수량)
+     * @return 커밋되면 주문 id 로 완료되는 future
+     */
+    public CompletableFuture<Long> place(Long memberId, Map<Long, Integer> itemCounts) {
+        PlaceOrder request = new PlaceOrder(memberId, new TreeMap<>(itemCounts), new CompletableFuture<>());
+        if (!running || !queue.offer(request)) {
+            request.future.completeExceptionally(new IllegalStateException("주문 대기열이 가득 찼습니다. 잠시 후 다시 시도해 주세요."));
+        }
+        return request.future;
+    }
+
+    // 워커가 죽으면 대기열의 future 가 영원히 완료되지 않으므로, 예외는 묶음 단위로 실패 처리하고 계속 돎
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            List<PlaceOrder> batch = new ArrayList<>(maxBatchSize);
+            try {
+                collect(batch);
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(batch, e);
+                return;
+            } catch (Throwable e) {
+                log.error("주문 묶음 {}건 처리 중 예상하지 못한 예외", batch.size(), e);
+                fail(batch, e);
+            }
+        }
+    }
+
+    // 첫 주문을 기다린 뒤 max-wait-ms 동안 또는 max-batch-size 개까지 모음
+    private void collect(List<PlaceOrder> batch) throws InterruptedException {
+        PlaceOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatchSize) {
+            PlaceOrder next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    // 이미 완료된 future 는 그대로 둠
+    private void fail(List<PlaceOrder> batch, Throwable e) {
+        for (PlaceOrder request : batch) {
+            if (request.future.completeExceptionally(e)) {
+                failedOrders.increment();
+            }
+        }
+    }
+
+    private void commit(List<PlaceOrder> batch) {
+        List<Long> orderIds;
+        try {
+            orderIds = transactionTemplate.execute(status -> persist(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                log.debug("주문 묶음 {}건 실패, 1건씩 다시 처리: {}", batch.size(), e.getMessage());
+                fallbackBatchCount.increment();
+                batch.forEach(request -> commit(List.of(request)));
+            } else {
+                failedOrders.increment();
+                batch.get(0).future.completeExceptionally(e);
+            }
+            return;
+        }
+
+        batchCount.increment();
+        batchedOrders.add(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(orderIds.get(i));
+        }
+    }
+
+    private List<Long> persist(List<PlaceOrder> batch) {
+        // 묶음 전체의 재고를 상품별로 합쳐서 상품 id 순서로 한 번에 차감 (다른 워커의 묶음과 락 순서가 같음)
+        Map<Long, Integer> stockCounts = new TreeMap<>();
+        batch.forEach(request -> request.itemCounts.forEach((itemId, count) -> stockCounts.merge(itemId, count, Integer::sum)));
+        itemRepository.removeStocks(stockCounts);
+
+        // 회원/상품은 묶음 전체를 in 쿼리로 한 번에 올려두고, 아래 em.find 는 영속성 컨텍스트에서 꺼냄
+        Set<Long> memberIds = batch.stream().map(request -> request.memberId).collect(Collectors.toSet());
+        InClauseBatcher.query(memberIds, chunk -> em.createQuery(
+                        "select m from Member m where m.id in :memberIds", Member.class)
+                .setParameter("memberIds", chunk)
+                .getResultList());
+        InClauseBatcher.query(stockCounts.keySet(), chunk -> em.createQuery(
+                        "select i from Item i where i.id in :itemIds", Item.class)
+                .setParameter("itemIds", chunk)
+                .getResultList());
+
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (PlaceOrder request : batch) {
+            Member member = em.find(Member.class, request.memberId);
+            if (member == null) {
+                throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId=" + request.memberId);
+            }
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+
+            OrderItem[] orderItems = request.itemCounts.entrySet().stream()
+                    .map(entry -> {
+                        Item item = em.find(Item.class, entry.getKey());
+                        return OrderItem.createBulkOrderItem(item, item.getPrice(), entry.getValue());
+                    })
+                    .toArray(OrderItem[]::new);
+
+            Order order = Order.createOrder(member, delivery, orderItems);
+            orderRepository.save(order);
+            orders.add(order);
+        }
+        return orders.stream().map(Order::getId).collect(Collectors.toList());
+    }
+
+    public PipelineStats getStats() {
+        long batches = batchCount.sum();
+        return new PipelineStats(
+                queue.size(),
+                batches,
+                batches == 0 ? 0 : (double) batchedOrders.sum() / batches,
+                fallbackBatchCount.sum(),
+                failedOrders.sum());
+    }
+
+    private static class PlaceOrder {
+        private final Long memberId;
+        private final Map<Long, Integer> itemCounts;
+        private final CompletableFuture<Long> future;
+
+        PlaceOrder(Long memberId, Map<Long, Integer> itemCounts, CompletableFuture<Long> future) {
+            this.memberId = memberId;
+            this.itemCounts = itemCounts;
+            this.future = future;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class PipelineStats {
+        private int queued;
+        private long committedBatches;
+        private double avgBatchSize; // 커밋 1번에 묶인 평균 주문 수
+        private long fallbackBatches; // 실패해서 1건씩 다시 처리한 묶음 수
+        private long failedOrders;
+    }
+}
@@ -0,0 +1,57 @@
+package jpabook.jpashop.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * in 절 쿼리 분할 실행
+ * - id 목록을 최대 MAX_BATCH_SIZE 개씩 나누고, 각 청크는 2의 거듭제곱 크기(최소 MIN_BATCH_SIZE)로 맞춘다.
+ * - 모자란 자리는 마지막 id 를 반복해서 채운다. (in (1, 2, 3, 3) 은 in (1, 2, 3) 과 결과가 같음)
+ * - 그 결과 파라미터 개수가 8, 16, 32 ... 512 중 하나로만 나오므로 SQL 모양이 몇 개로 고정되고,
+ *   너무 긴 in 절로 드라이버 제한에 걸리는 일도 없다.
+ */
+public final class InClauseBatcher {
+
+    public static final int MAX_BATCH_SIZE = 512;
+    private static final int MIN_BATCH_SIZE = 8;
+
+    private InClauseBatcher() {
+    }
+
+    /**
+     * 청크마다 query 를 실행하고 결과를 하나의 List 로 합친다.
+     */
+    public static <T, R> List<R> query(Collection<T> values, Function<List<T>, List<R>> query) {
+        List<R> result = new ArrayList<>();
+        for (List<T> chunk : partition(values)) {
+            result.addAll(query.apply(chunk));
+        }
+        return result;
+    }
+
+    public static <T> List<List<T>> partition(Collection<T> values) {
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += MAX_BATCH_SIZE) {
+            List<T> chunk = new ArrayList<>(distinct.subList(from, Math.min(from + MAX_BATCH_SIZE, distinct.size())));
+            T last = chunk.get(chunk.size() - 1);
+            int bucketSize = bucketSize(chunk.size());
+            while (chunk.size() < bucketSize) {
+                chunk.add(last);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    static int bucketSize(int size) {
+        if (size <= MIN_BATCH_SIZE) {
+            return MIN_BATCH_SIZE;
+        }
+        int highest = Integer.highestOneBit(size);
+        return highest == size ? size : highest << 1;
+    }
+}
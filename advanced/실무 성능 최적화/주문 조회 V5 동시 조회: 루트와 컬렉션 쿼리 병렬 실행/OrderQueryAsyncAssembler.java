@@ -0,0 +1,138 @@
+package jpabook.jpashop.repository.order.query;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * V5 동시 조회 (주문 id 구간 페이지)
+ * - 원래 V5 는 루트 쿼리가 끝나야 그 결과의 주문 id 로 컬렉션(in) 쿼리를 날릴 수 있어서 두 쿼리가 차례로 실행됨
+ * - 페이지를 주문 id 구간 (afterId, lastId] 으로 정하면 두 쿼리가 같은 구간 조건만 쓰므로 서로 기다릴 필요가 없음
+ *   1) 구간의 끝 lastId 는 PK 인덱스만 읽는 가벼운 쿼리로 먼저 구함
+ *   2) 컬렉션 쿼리는 조회 전용 스레드에 넘기고, 그동안 루트 쿼리는 요청 스레드가 자기 커넥션으로 실행한 뒤 합침
+ * - 응답 시간은 두 쿼리의 합이 아니라 느린 쪽 하나에 가까워짐
+ * - 조회 전용 스레드는 애플리케이션 커넥션 풀이 아니라 스레드 수만큼의 전용 풀(v5-concurrent)에서 커넥션을 받음
+ *   요청 스레드가 OSIV 커넥션을 잡은 채로 기다리므로, 같은 풀을 쓰면 동시 요청이 풀을 다 잡았을 때 서로 기다리다 멈춤(deadlock)
+ * - 다른 스레드에서 실행된 SQL 은 요청별 SQL 카운트(@QueryBudget)에 잡히지 않음
+ */
+@Slf4j
+@Repository
+public class OrderQueryAsyncAssembler {
+
+    private final EntityManager em;
+    private final SessionFactory sessionFactory;
+    private final HikariDataSource queryDataSource;
+    private final ThreadPoolExecutor executor;
+
+    public OrderQueryAsyncAssembler(EntityManager em,
+                                    EntityManagerFactory emf,
+                                    DataSourceProperties properties,
+                                    @Value("${jpashop.v5-concurrent.query-threads:4}") int queryThreads) {
+        this.em = em;
+        this.sessionFactory = emf.unwrap(SessionFactory.class);
+        // 스레드마다 커넥션 1개면 충분하고, 스레드보다 많을 필요도 없음
+        this.queryDataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        queryDataSource.setPoolName("v5-concurrent");
+        queryDataSource.setMaximumPoolSize(queryThreads);
+        queryDataSource.setReadOnly(true);
+        // 큐가 차면 요청 스레드가 직접 실행 (이때도 전용 풀의 커넥션을 씀)
+        this.executor = new ThreadPoolExecutor(queryThreads, queryThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queryThreads * 16), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        queryDataSource.close();
+    }
+
+    /**
+     * afterId 다음 주문부터 limit 개
+     */
+    public List<OrderQueryDto> findPageByDto_concurrent(long afterId, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit 은 1 이상이어야 합니다.");
+        }
+        Long lastId = findLastId(afterId, limit);
+
+        CompletableFuture<Map<Long, List<OrderItemQueryDto>>> orderItemMap = supplyAsync(other -> other.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+                                " from OrderItem oi" +
+                                " join oi.item i" +
+                                " where oi.order.id > :afterId and oi.order.id <= :lastId", OrderItemQueryDto.class)
+                .setParameter("afterId", afterId)
+                .setParameter("lastId", lastId)
+                .getResultList()
+                .stream()
+                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId)));
+
+        // 루트 쿼리는 요청 스레드의 커넥션으로 (컬렉션 쿼리와 동시에 실행됨)
+        List<OrderQueryDto> result = em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " where o.id > :afterId and o.id <= :lastId" +
+                                " order by o.id", OrderQueryDto.class)
+                .setParameter("afterId", afterId)
+                .setParameter("lastId", lastId)
+                .getResultList();
+
+        try {
+            Map<Long, List<OrderItemQueryDto>> itemMap = orderItemMap.join();
+            result.forEach(o -> o.setOrderItems(itemMap.get(o.getOrderId())));
+            return result;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // 페이지 마지막 주문 id, 남은 주문이 limit 보다 적으면 끝까지
+    private Long findLastId(long afterId, int limit) {
+        return em.createQuery(
+                        "select o.id from Order o" +
+                                " where o.id > :afterId" +
+                                " order by o.id", Long.class)
+                .setParameter("afterId", afterId)
+                .setFirstResult(limit - 1)
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst()
+                .orElse(Long.MAX_VALUE);
+    }
+
+    // 요청 스레드의 EntityManager(커넥션)는 다른 스레드에서 쓸 수 없으므로 작업마다 전용 풀의 커넥션으로 세션을 새로 열고 닫음
+    private <T> CompletableFuture<T> supplyAsync(Function<EntityManager, T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = queryDataSource.getConnection();
+                 Session other = sessionFactory.withOptions().connection(connection).openSession()) {
+                other.setDefaultReadOnly(true);
+                return query.apply(other);
+            } catch (SQLException e) {
+                throw new IllegalStateException("v5-concurrent 커넥션을 얻지 못했습니다.", e);
+            }
+        }, executor);
+    }
+}
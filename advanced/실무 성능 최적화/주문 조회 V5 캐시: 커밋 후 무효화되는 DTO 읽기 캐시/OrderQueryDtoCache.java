@@ -0,0 +1,115 @@
+package jpabook.jpashop.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * /api/v5/orders 용 조립된 OrderQueryDto 캐시 (키: 주문 id)
+ * - 주문/주문상품/배송/회원/상품 변경이 커밋되면 OrderQueryDtoCacheInvalidator 가 해당 주문만 지운다.
+ * - 캐시에 든 DTO 는 여러 요청이 같이 보므로 꺼내서 수정하면 안 된다.
+ * - 조회 중에 커밋된 무효화는 주문 id 별 버전으로 막는다. 다른 주문의 변경은 조회한 DTO 저장을 막지 않음
+ *   (어느 주문인지 모르는 invalidateIf, invalidateAll 만 그 전에 시작한 조회를 전부 막음)
+ */
+@Component
+public class OrderQueryDtoCache {
+
+    private final Cache<Long, OrderQueryDto> cache = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .recordStats()
+            .build();
+
+    // 주문 id 별 무효화 기록이 이보다 많아지면 비우고 floor 를 올림 (그 전에 시작한 조회만 저장하지 않게 됨)
+    private static final int MAX_TRACKED_INVALIDATIONS = 100_000;
+
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    private final Map<Long, Long> invalidatedVersions = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationFloor = new AtomicLong();
+    private final LongAdder invalidatedEntries = new LongAdder();
+
+    public Map<Long, OrderQueryDto> getAll(Collection<Long> orderIds) {
+        return new HashMap<>(cache.getAllPresent(orderIds));
+    }
+
+    public long stamp() {
+        return invalidationSequence.get();
+    }
+
+    /**
+     * stamp 를 읽은 뒤로 무효화된 주문은 저장하지 않는다. (다음 요청에서 다시 조회됨)
+     */
+    public void putAll(List<OrderQueryDto> orders, long stamp) {
+        for (OrderQueryDto order : orders) {
+            Long orderId = order.getOrderId();
+            if (invalidatedSince(orderId, stamp)) {
+                continue;
+            }
+            cache.put(orderId, order);
+            // put 하는 사이에 무효화됐으면 방금 넣은 것을 지움
+            if (invalidatedSince(orderId, stamp)) {
+                cache.invalidate(orderId);
+            }
+        }
+    }
+
+    private boolean invalidatedSince(Long orderId, long stamp) {
+        return stamp < invalidationFloor.get() || invalidatedVersions.getOrDefault(orderId, 0L) > stamp;
+    }
+
+    public void invalidate(Long orderId) {
+        invalidatedVersions.merge(orderId, invalidationSequence.incrementAndGet(), Math::max);
+        if (invalidatedVersions.size() > MAX_TRACKED_INVALIDATIONS) {
+            // 비운 뒤에 floor 를 읽어야 지워진 기록의 버전이 모두 floor 이하가 됨
+            invalidatedVersions.clear();
+            invalidationFloor.accumulateAndGet(invalidationSequence.get(), Math::max);
+        }
+        if (cache.asMap().remove(orderId) != null) {
+            invalidatedEntries.increment();
+        }
+    }
+
+    public void invalidateIf(Predicate<OrderQueryDto> affected) {
+        invalidationFloor.accumulateAndGet(invalidationSequence.incrementAndGet(), Math::max);
+        cache.asMap().values().removeIf(order -> {
+            boolean remove = affected.test(order);
+            if (remove) {
+                invalidatedEntries.increment();
+            }
+            return remove;
+        });
+    }
+
+    public void invalidateAll() {
+        invalidationFloor.accumulateAndGet(invalidationSequence.incrementAndGet(), Math::max);
+        invalidatedEntries.add(cache.estimatedSize());
+        cache.invalidateAll();
+    }
+
+    public DtoCacheStats getStats() {
+        CacheStats stats = cache.stats();
+        return new DtoCacheStats(cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(), invalidatedEntries.sum());
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class DtoCacheStats {
+        private long size;
+        private long hitCount;
+        private long missCount;
+        private double hitRatio;
+        private long invalidatedEntries;
+    }
+}
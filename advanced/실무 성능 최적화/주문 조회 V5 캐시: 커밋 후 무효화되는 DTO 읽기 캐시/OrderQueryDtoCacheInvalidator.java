@@ -0,0 +1,144 @@
+package jpabook.jpashop.cache;
+
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * OrderQueryDto 캐시 무효화 (커밋 후 하이버네이트 이벤트)
+ * - Order, OrderItem, Delivery: 해당 주문 id 만 무효화
+ * - Member, Item: DTO 에는 회원 이름/상품 이름만 들어가므로 이름이 바뀐 경우에만,
+ *   변경 전 이름을 가진 DTO 를 무효화 (같은 이름의 다른 주문도 지워질 수 있지만 다시 조회될 뿐임)
+ * - 어느 주문인지 알 수 없으면 전체 무효화
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderQueryDtoCacheInvalidator implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final OrderQueryDtoCache orderQueryDtoCache;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        // 새 주문은 캐시에 없으므로 지울 것이 없음, 기존 주문에 주문상품이 추가된 경우만 처리
+        if (event.getEntity() instanceof OrderItem) {
+            invalidateOrderOf((OrderItem) event.getEntity());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Order) {
+            orderQueryDtoCache.invalidate((Long) event.getId());
+        } else if (entity instanceof OrderItem) {
+            invalidateOrderOf((OrderItem) entity);
+        } else if (entity instanceof Delivery) {
+            Order order = ((Delivery) entity).getOrder();
+            if (order != null) {
+                orderQueryDtoCache.invalidate(order.getId());
+            } else {
+                orderQueryDtoCache.invalidateAll();
+            }
+        } else if (entity instanceof Member) {
+            invalidateRenamed(event, oldName -> dto -> Objects.equals(dto.getName(), oldName));
+        } else if (entity instanceof Item) {
+            invalidateRenamed(event, oldName -> dto -> dto.getOrderItems() != null
+                    && dto.getOrderItems().stream().anyMatch(oi -> Objects.equals(oi.getItemName(), oldName)));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Order) {
+            orderQueryDtoCache.invalidate((Long) event.getId());
+        } else if (event.getEntity() instanceof OrderItem) {
+            invalidateOrderOf((OrderItem) event.getEntity());
+        }
+    }
+
+    private void invalidateOrderOf(OrderItem orderItem) {
+        if (orderItem.getOrder() != null) {
+            // 프록시여도 getId() 는 초기화하지 않음
+            orderQueryDtoCache.invalidate(orderItem.getOrder().getId());
+        } else {
+            orderQueryDtoCache.invalidateAll();
+        }
+    }
+
+    private void invalidateRenamed(PostUpdateEvent event, Function<String, Predicate<OrderQueryDto>> affectedByOldName) {
+        if (event.getOldState() == null) {
+            orderQueryDtoCache.invalidateAll();
+            return;
+        }
+        int index = propertyIndex(event.getPersister(), "name");
+        String oldName = (String) event.getOldState()[index];
+        if (Objects.equals(oldName, event.getState()[index])) {
+            return;
+        }
+        orderQueryDtoCache.invalidateIf(affectedByOldName.apply(oldName));
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        Class<?> entityClass = persister.getMappedClass();
+        return Order.class.isAssignableFrom(entityClass)
+                || OrderItem.class.isAssignableFrom(entityClass)
+                || Delivery.class.isAssignableFrom(entityClass)
+                || Member.class.isAssignableFrom(entityClass)
+                || Item.class.isAssignableFrom(entityClass);
+    }
+
+    private int propertyIndex(EntityPersister persister, String propertyName) {
+        String[] propertyNames = persister.getPropertyNames();
+        for (int i = 0; i < propertyNames.length; i++) {
+            if (propertyNames[i].equals(propertyName)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("property not found: " + propertyName);
+    }
+}
@@ -0,0 +1,320 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.cache.OrderQueryDtoCache;
+import jpabook.jpashop.repository.InClauseBatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class OrderQueryRepository {
+
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private final EntityManager em;
+    private final OrderQueryDtoCache orderQueryDtoCache;
+
+    public List<OrderQueryDto> findOrderQueryDtos() {
+        List<OrderQueryDto> result = findOrders();
+        result.forEach( o -> {
+            List<OrderItemQueryDto> orderItems = findOrderItems(o.getOrderId());
+            o.setOrderItems(orderItems);
+        });
+        return result;
+    }
+    // 이전의 findOrderQueryDtos의 한계인 반복문을 계속 돈다는 것을 해결하기 위함
+    public List<OrderQueryDto> findAllByDto_optimization() {
+        List<OrderQueryDto> result = findOrders();  // 쿼리 1번
+
+        // result 가져온 것을 in 절로 한 번에 땡기기 가능
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(result));
+
+        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+
+        return result;
+    }
+
+    // V5 + 읽기 캐시
+    // 주문 id 만 먼저 가볍게 조회하고, 캐시에 조립된 OrderQueryDto 가 있으면 그대로 사용
+    // 커밋 후 이벤트로 무효화된 주문만 루트 쿼리 + in 쿼리로 다시 조회해서 캐시에 채움
+    public List<OrderQueryDto> findAllByDto_cached() {
+        List<Long> orderIds = em.createQuery(
+                        "select o.id from Order o" +
+                                " order by o.id", Long.class)
+                .getResultList();
+
+        Map<Long, OrderQueryDto> orderMap = orderQueryDtoCache.getAll(orderIds);
+        List<Long> missIds = orderIds.stream()
+                .filter(id -> !orderMap.containsKey(id))
+                .collect(Collectors.toList());
+
+        if (!missIds.isEmpty()) {
+            // 조회하는 사이에 변경이 커밋된 주문은 put 이 무시되어 옛날 DTO 가 캐시에 남지 않음
+            long stamp = orderQueryDtoCache.stamp();
+            List<OrderQueryDto> loaded = findOrders(missIds);
+            Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(missIds);
+            loaded.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+            orderQueryDtoCache.putAll(loaded, stamp);
+            loaded.forEach(o -> orderMap.put(o.getOrderId(), o));
+        }
+
+        return orderIds.stream()
+                .map(orderMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public List<OrderFlatDto> findAllByDto_flat() {
+        return createFlatQuery().getResultList();
+    }
+
+    // 플랫 데이터를 한 줄씩 읽으면서 주문 id 가 바뀔 때마다 OrderQueryDto 하나를 완성함
+    // groupingBy 처럼 전체를 HashMap 에 올릴 필요 없이 조립 중인 주문 1건만 들고 있으면 됨
+    // 쿼리는 여전히 1번이고, 결과 모양은 V5 와 동일
+    public List<OrderQueryDto> findAllByDto_flatNested() {
+        List<OrderQueryDto> result = new ArrayList<>();
+        try (Stream<OrderFlatDto> flats = createFlatQuery().getResultStream()) {
+            OrderFlatAssembler.assemble(flats.iterator(), result::add);
+        }
+        return result;
+    }
+
+    // 전체 주문 내보내기용
+    // getResultList 는 전체 행을 List 로 만들어야 끝나므로, 전방향 전용 커서(ScrollableResults)로 fetch size 만큼씩 읽음
+    // 조립이 끝난 주문은 바로 consumer 로 넘기므로 행 수와 상관없이 조립 중인 주문 1건만 메모리에 있음
+    // (select new 프로젝션이라 영속성 컨텍스트에 엔티티가 쌓이지 않음 -> session.clear() 불필요)
+    // (MySQL 드라이버는 fetch size 를 Integer.MIN_VALUE 로 줘야 실제로 스트리밍함)
+    @Transactional(readOnly = true)
+    public void scrollAllByDto_flat(Consumer<OrderQueryDto> consumer) {
+        Session session = em.unwrap(Session.class);
+        try (ScrollableResults flats = session.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " join o.orderItems oi" +
+                                " join oi.item i" +
+                                " order by o.id, oi.id", OrderFlatDto.class)
+                .setFetchSize(EXPORT_FETCH_SIZE)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+
+            Iterator<OrderFlatDto> iterator = new Iterator<OrderFlatDto>() {
+                private Boolean hasNext;
+
+                @Override
+                public boolean hasNext() {
+                    if (hasNext == null) {
+                        hasNext = flats.next();
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public OrderFlatDto next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    hasNext = null;
+                    return (OrderFlatDto) flats.get(0);
+                }
+            };
+            OrderFlatAssembler.assemble(iterator, consumer);
+        }
+    }
+
+    // 같은 주문의 행들이 연속해서 나와야 스트리밍 조립이 가능하므로 o.id 로 정렬
+    private TypedQuery<OrderFlatDto> createFlatQuery() {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+                        " from Order o" +
+                        " join o.member m" +
+                        " join o.delivery d" +
+                        " join o.orderItems oi" +
+                        " join oi.item i" +
+                        " order by o.id, oi.id", OrderFlatDto.class);
+    }
+
+    // in 절 파라미터 개수가 매번 다르면 개수마다 다른 SQL 이 만들어져 쿼리 플랜 캐시와 JDBC statement 캐시가 오염됨
+    // InClauseBatcher 로 id 를 2의 거듭제곱 크기 청크로 나누고 남는 자리는 마지막 id 로 채워서 SQL 모양을 몇 개로 고정
+    // 청크마다 쿼리 1번씩 실행하고 결과를 하나의 Map 으로 합침
+    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long hitBefore = statistics.getQueryPlanCacheHitCount();
+        long missBefore = statistics.getQueryPlanCacheMissCount();
+
+        List<OrderItemQueryDto> orderItems = InClauseBatcher.query(orderIds, chunk -> em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+                                " from OrderItem oi" +
+                                " join oi.item i" +
+                                " where oi.order.id in :orderIds", OrderItemQueryDto.class)
+                .setParameter("orderIds", chunk)
+                .getResultList());
+
+        if (statistics.isStatisticsEnabled()) {
+            long hit = statistics.getQueryPlanCacheHitCount() - hitBefore;
+            long miss = statistics.getQueryPlanCacheMissCount() - missBefore;
+            log.debug("findOrderItemMap ids={} plan cache hit={} miss={} (total hit ratio={})",
+                    orderIds.size(), hit, miss, hitRatio(statistics.getQueryPlanCacheHitCount(), statistics.getQueryPlanCacheMissCount()));
+        }
+
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
+                .collect(Collectors.groupingBy(orderItemQueryDto -> orderItemQueryDto.getOrderId()));
+        return orderItemMap;
+    }
+
+    private double hitRatio(long hit, long miss) {
+        return hit + miss == 0 ? 0 : (double) hit / (hit + miss);
+    }
+
+    private List<Long> toOrderIds(List<OrderQueryDto> result) {
+        List<Long> orderIds = result.stream()
+                .map(o -> o.getOrderId())
+                .collect(Collectors.toList());
+        return orderIds;
+    }
+
+    private List<OrderItemQueryDto> findOrderItems (Long orderId) {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+                        " from OrderItem oi" +
+                        " join oi.item i" +
+                        " where oi.order.id = :orderId", OrderItemQueryDto.class)
+                .setParameter("orderId", orderId)
+                .getResultList();
+    }
+
+    public List<OrderQueryDto> findOrders() {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d", OrderQueryDto.class)
+                .getResultList();
+    }
+
+    private List<OrderQueryDto> findOrders(List<Long> orderIds) {
+        return InClauseBatcher.query(orderIds, chunk -> em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " where o.id in :orderIds", OrderQueryDto.class)
+                .setParameter("orderIds", chunk)
+                .getResultList());
+    }
+
+//    private final EntityManager em;
+//
+//    /**
+//     * 컬렉션은 별도로 조회
+//     * Query: 루트 1번, 컬렉션 N 번
+//     * 단건 조회에서 많이 사용하는 방식
+//     */
+//    public List<OrderQueryDto> findOrderQueryDtos() {
+//        //루트 조회(toOne 코드를 모두 한번에 조회)
+//        List<OrderQueryDto> result = findOrders();
+//
+//        //루프를 돌면서 컬렉션 추가(추가 쿼리 실행)
+//        result.forEach(o -> {
+//            List<OrderItemQueryDto> orderItems = findOrderItems(o.getOrderId());
+//            o.setOrderItems(orderItems);
+//        });
+//        return result;
+//    }
+//
+//    /**
+//     * 1:N 관계(컬렉션)를 제외한 나머지를 한번에 조회
+//     */
+//    private List<OrderQueryDto> findOrders() {
+//        return em.createQuery(
+//                "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+//                        " from Order o" +
+//                        " join o.member m" +
+//                        " join o.delivery d", OrderQueryDto.class)
+//                .getResultList();
+//    }
+//
+//    /**
+//     * 1:N 관계인 orderItems 조회
+//     */
+//    private List<OrderItemQueryDto> findOrderItems(Long orderId) {
+//        return em.createQuery(
+//                "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+//                        " from OrderItem oi" +
+//                        " join oi.item i" +
+//                        " where oi.order.id = : orderId", OrderItemQueryDto.class)
+//                .setParameter("orderId", orderId)
+//                .getResultList();
+//    }
+//
+//    /**
+//     * 최적화
+//     * Query: 루트 1번, 컬렉션 1번
+//     * 데이터를 한꺼번에 처리할 때 많이 사용하는 방식
+//     *
+//     */
+//    public List<OrderQueryDto> findAllByDto_optimization() {
+//
+//        //루트 조회(toOne 코드를 모두 한번에 조회)
+//        List<OrderQueryDto> result = findOrders();
+//
+//        //orderItem 컬렉션을 MAP 한방에 조회
+//        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(result));
+//
+//        //루프를 돌면서 컬렉션 추가(추가 쿼리 실행X)
+//        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+//
+//        return result;
+//    }
+//
+//    private List<Long> toOrderIds(List<OrderQueryDto> result) {
+//        return result.stream()
+//                .map(o -> o.getOrderId())
+//                .collect(Collectors.toList());
+//    }
+//
+//    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
+//        List<OrderItemQueryDto> orderItems = em.createQuery(
+//                "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+//                        " from OrderItem oi" +
+//                        " join oi.item i" +
+//                        " where oi.order.id in :orderIds", OrderItemQueryDto.class)
+//                .setParameter("orderIds", orderIds)
+//                .getResultList();
+//
+//        return orderItems.stream()
+//                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+//    }
+//
+//    public List<OrderFlatDto> findAllByDto_flat() {
+//        return em.createQuery(
+//                "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+//                        " from Order o" +
+//                        " join o.member m" +
+//                        " join o.delivery d" +
+//                        " join o.orderItems oi" +
+//                        " join oi.item i", OrderFlatDto.class)
+//                .getResultList();
+//    }
+}
\ No newline at end of file
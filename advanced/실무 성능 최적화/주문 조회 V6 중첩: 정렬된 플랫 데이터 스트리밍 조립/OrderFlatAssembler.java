@@ -0,0 +1,34 @@
+package jpabook.jpashop.repository.order.query;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * 주문 id 로 정렬된 OrderFlatDto 행들을 OrderQueryDto(+ OrderItemQueryDto 목록)로 조립
+ * - 주문 id 가 바뀌는 순간 이전 주문을 완성된 것으로 보고 consumer 로 넘긴다.
+ * - 조립 중인 주문 1건만 들고 있으므로 행이 아무리 많아도 메모리 사용량이 늘지 않는다.
+ * - 정렬되지 않은 행을 넘기면 같은 주문이 여러 번 나뉘어 나오므로 반드시 o.id 로 정렬해서 넘길 것
+ */
+public final class OrderFlatAssembler {
+
+    private OrderFlatAssembler() {
+    }
+
+    public static void assemble(Iterator<OrderFlatDto> flats, Consumer<OrderQueryDto> consumer) {
+        OrderQueryDto current = null;
+        while (flats.hasNext()) {
+            OrderFlatDto flat = flats.next();
+            if (current == null || !current.getOrderId().equals(flat.getOrderId())) {
+                if (current != null) {
+                    consumer.accept(current);
+                }
+                current = new OrderQueryDto(flat.getOrderId(), flat.getName(), flat.getOrderDate(), flat.getOrderStatus(), flat.getAddress(), new ArrayList<>());
+            }
+            current.getOrderItems().add(new OrderItemQueryDto(flat.getOrderId(), flat.getItemName(), flat.getOrderPrice(), flat.getCount()));
+        }
+        if (current != null) {
+            consumer.accept(current);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package jpabook.jpashop.repository.order.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * V6 플랫 데이터의 컬럼형 응답 (Accept: application/vnd.jpashop.orders-columnar+json)
+ * - OrderFlatDto 는 주문상품 행마다 회원 이름, 주문 시간, 상태, 주소를 반복하므로
+ *   주문 컬럼은 주문당 한 번, 주문상품 컬럼은 평행 배열로 보냄
+ * - 문자열은 모두 strings 사전의 인덱스(없으면 -1)로 보냄
+ * - i 번째 주문의 주문상품은 itemCount[0..i-1] 합부터 itemCount[i] 개
+ *
+ * 복원 예) 주문 i 의 회원 이름 = strings[name[i]]
+ *          주문 id = orderIdDelta[0..i] 누적합 (주문 id 오름차순이라 차이만 보냄)
+ *          주문 시간 = orderDate[i] (UTC 기준 epoch millis 로 바꾼 LocalDateTime, 밀리초 미만은 버림)
+ */
+@Getter
+@AllArgsConstructor
+public class OrderColumnarDto {
+
+    public static final String MEDIA_TYPE = "application/vnd.jpashop.orders-columnar+json";
+
+    private final List<String> strings;
+
+    // 주문 컬럼 (주문 수만큼)
+    private final long[] orderIdDelta;
+    private final int[] name;
+    private final long[] orderDate;
+    private final int[] orderStatus;
+    private final int[] city;
+    private final int[] street;
+    private final int[] zipcode;
+    private final int[] itemCount;
+
+    // 주문상품 컬럼 (주문상품 수만큼)
+    private final int[] itemName;
+    private final int[] orderPrice;
+    private final int[] count;
+}
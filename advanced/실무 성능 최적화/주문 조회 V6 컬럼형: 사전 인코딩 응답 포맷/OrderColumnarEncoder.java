@@ -0,0 +1,91 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * 주문 id 로 정렬된 OrderFlatDto 행을 하나씩 받아서 OrderColumnarDto 로 인코딩
+ * - OrderFlatAssembler 와 같이 주문 id 가 바뀌는 순간 새 주문으로 봄 (정렬되지 않은 행을 넘기면 주문이 나뉨)
+ * - 행을 List 로 모으지 않고 컬럼 배열에 바로 쌓으므로 스트림 결과를 그대로 넘기면 됨
+ */
+public class OrderColumnarEncoder {
+
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    private final LongStream.Builder orderIdDelta = LongStream.builder();
+    private final IntStream.Builder name = IntStream.builder();
+    private final LongStream.Builder orderDate = LongStream.builder();
+    private final IntStream.Builder orderStatus = IntStream.builder();
+    private final IntStream.Builder city = IntStream.builder();
+    private final IntStream.Builder street = IntStream.builder();
+    private final IntStream.Builder zipcode = IntStream.builder();
+    private final IntStream.Builder itemCount = IntStream.builder();
+
+    private final IntStream.Builder itemName = IntStream.builder();
+    private final IntStream.Builder orderPrice = IntStream.builder();
+    private final IntStream.Builder count = IntStream.builder();
+
+    private Long currentOrderId;
+    private long previousOrderId;
+    private int currentItemCount;
+
+    public void add(OrderFlatDto flat) {
+        if (currentOrderId == null || !currentOrderId.equals(flat.getOrderId())) {
+            startOrder(flat);
+        }
+        itemName.add(code(flat.getItemName()));
+        orderPrice.add(flat.getOrderPrice());
+        count.add(flat.getCount());
+        currentItemCount++;
+    }
+
+    public OrderColumnarDto encode() {
+        if (currentOrderId != null) {
+            itemCount.add(currentItemCount);
+            currentOrderId = null;
+        }
+        return new OrderColumnarDto(strings,
+                orderIdDelta.build().toArray(), name.build().toArray(), orderDate.build().toArray(),
+                orderStatus.build().toArray(), city.build().toArray(), street.build().toArray(),
+                zipcode.build().toArray(), itemCount.build().toArray(),
+                itemName.build().toArray(), orderPrice.build().toArray(), count.build().toArray());
+    }
+
+    private void startOrder(OrderFlatDto flat) {
+        if (currentOrderId != null) {
+            itemCount.add(currentItemCount);
+        }
+        currentOrderId = flat.getOrderId();
+        currentItemCount = 0;
+
+        orderIdDelta.add(currentOrderId - previousOrderId);
+        previousOrderId = currentOrderId;
+        name.add(code(flat.getName()));
+        orderDate.add(flat.getOrderDate() == null ? 0 : flat.getOrderDate().toInstant(ZoneOffset.UTC).toEpochMilli());
+        orderStatus.add(code(flat.getOrderStatus() == null ? null : flat.getOrderStatus().name()));
+
+        Address address = flat.getAddress();
+        city.add(code(address == null ? null : address.getCity()));
+        street.add(code(address == null ? null : address.getStreet()));
+        zipcode.add(code(address == null ? null : address.getZipcode()));
+    }
+
+    // 처음 나온 순서대로 번호를 매김, null 은 -1
+    private int code(String value) {
+        if (value == null) {
+            return -1;
+        }
+        return dictionary.computeIfAbsent(value, v -> {
+            strings.add(v);
+            return strings.size() - 1;
+        });
+    }
+}
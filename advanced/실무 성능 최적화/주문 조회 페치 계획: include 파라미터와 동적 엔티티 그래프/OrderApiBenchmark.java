@@ -0,0 +1,187 @@
+package jpabook.jpashop.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.api.OrderApiController;
+import jpabook.jpashop.api.OrderSimpleApiController;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * 주문 조회 전략별 벤치마크 (OrderApiController V1~V6, OrderSimpleApiController V1~V4)
+ * - 웹 서버 없이 JPA 계층만 띄우고, 임베디드 H2 에 1k / 100k / 1M 주문을 적재한다.
+ * - 한 번의 측정 = 컨트롤러 메서드 호출(조회 + DTO 변환) + JSON 직렬화
+ *   OSIV 를 흉내내기 위해 직렬화까지 읽기 전용 트랜잭션 안에서 실행 (V1, V2 의 지연 로딩 포함)
+ * - 캐시가 붙은 V5(ordersV5)와 캐시 없는 원래 V5(findAllByDto_optimization)를 따로 잰다.
+ * - 할당 바이트는 gc 프로파일러의 gc.alloc.rate.norm 으로 확인
+ * - 전략마다 읽는 주문 수가 다름 -> 처리량(ops/ms) 대신 Rows 의 orders 지표(직렬화한 주문/ms)로 비교
+ *   V1, V2, simple V1, V2 는 findAllByString 이 최대 1000건, ordersV3_page 도 같은 PAGE_SIZE 만 읽고
+ *   나머지는 전체 주문을 읽음 (V4 는 주문마다 주문상품 쿼리가 나가므로 1M 에서는 1M+1 쿼리)
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderApiBenchmark {
+
+    // findAllByString 의 setMaxResults(1000) 과 같은 크기
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int orderCount;
+
+    private ConfigurableApplicationContext context;
+    private OrderApiController orderApiController;
+    private OrderSimpleApiController orderSimpleApiController;
+    private OrderQueryRepository orderQueryRepository;
+    private OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private TransactionTemplate readOnlyTx;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench" + orderCount + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.org.hibernate.SQL=off")
+                .run();
+
+        new BenchmarkDataSeeder(context.getBean(JdbcTemplate.class)).seed(orderCount);
+
+        orderApiController = context.getBean(OrderApiController.class);
+        orderSimpleApiController = context.getBean(OrderSimpleApiController.class);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        orderSimpleQueryRepository = context.getBean(OrderSimpleQueryRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] ordersV1(Rows rows) {
+        return render(rows, () -> orderApiController.ordersV1("member,delivery,items,items.item"));
+    }
+
+    // include 로 to-one 만 고른 V1 (주문상품은 로딩하지 않고 null 로 나감)
+    @Benchmark
+    public byte[] ordersV1_memberDelivery(Rows rows) {
+        return render(rows, () -> orderApiController.ordersV1("member,delivery"));
+    }
+
+    @Benchmark
+    public byte[] ordersV2(Rows rows) {
+        return render(rows, () -> orderApiController.ordersV2());
+    }
+
+    @Benchmark
+    public byte[] ordersV3(Rows rows) {
+        return render(rows, () -> orderApiController.ordersV3());
+    }
+
+    @Benchmark
+    public byte[] ordersV3_page(Rows rows) {
+        return render(rows, () -> orderApiController.ordersV3_page(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public byte[] ordersV4(Rows rows) {
+        return render(rows, () -> orderApiController.ordersV4());
+    }
+
+    @Benchmark
+    public byte[] ordersV5(Rows rows) {
+        return render(rows, () -> orderApiController.ordersV5());
+    }
+
+    @Benchmark
+    public byte[] ordersV5_uncached(Rows rows) {
+        return render(rows, () -> orderQueryRepository.findAllByDto_optimization());
+    }
+
+    @Benchmark
+    public byte[] ordersV6(Rows rows) {
+        return render(rows, () -> orderApiController.ordersV6(), OrderApiBenchmark::countFlatOrders);
+    }
+
+    @Benchmark
+    public byte[] ordersV6_nested(Rows rows) {
+        return render(rows, () -> orderApiController.ordersV6_nested());
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV1(Rows rows) {
+        return render(rows, () -> orderSimpleApiController.ordersV1("member,delivery"));
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV2(Rows rows) {
+        return render(rows, () -> orderSimpleApiController.ordersV2());
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV3(Rows rows) {
+        return render(rows, () -> orderSimpleApiController.ordersV3());
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV4(Rows rows) {
+        return render(rows, () -> orderSimpleQueryRepository.findOrderDtos());
+    }
+
+    private byte[] render(Rows rows, Supplier<? extends List<?>> handler) {
+        return render(rows, handler, List::size);
+    }
+
+    private byte[] render(Rows rows, Supplier<? extends List<?>> handler, ToIntFunction<List<?>> orderCount) {
+        return readOnlyTx.execute(status -> {
+            try {
+                List<?> result = handler.get();
+                rows.orders += orderCount.applyAsInt(result);
+                return objectMapper.writeValueAsBytes(result);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    // V6 는 주문상품 한 줄이 한 행이므로 주문 수를 따로 셈
+    private static int countFlatOrders(List<?> flats) {
+        return (int) flats.stream()
+                .map(flat -> ((OrderFlatDto) flat).getOrderId())
+                .distinct()
+                .count();
+    }
+
+    /**
+     * 측정 1번에 직렬화한 주문 수 (orders 지표 = 주문/ms 로 결과 JSON 에 같이 기록됨)
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Rows {
+        public long orders;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            orders = 0;
+        }
+    }
+}
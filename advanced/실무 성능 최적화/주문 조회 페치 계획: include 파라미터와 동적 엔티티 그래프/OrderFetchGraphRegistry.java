@@ -0,0 +1,76 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.OrderFetchPlan.Part;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import java.util.EnumSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OrderFetchPlan 의 to-one 부분으로 만든 엔티티 그래프 캐시
+ * - OrderSearchQueryRegistry 와 같은 방식: 조합마다 처음 한 번만 그래프를 만들어 named entity graph 로 등록하고,
+ *   이후에는 이름만 돌려줌
+ * - 허용 목록이 고정이라 그래프는 to-one 조합 수(최대 4개)만큼만 생김
+ */
+@Slf4j
+@Component
+public class OrderFetchGraphRegistry {
+
+    private static final String GRAPH_NAME_PREFIX = "Order.include.";
+
+    private final ConcurrentMap<EnumSet<Part>, String> graphNames = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder buildCount = new LongAdder();
+
+    /**
+     * @return 엔티티 그래프 이름, 조인할 to-one 이 없으면 null (그래프 없이 조회)
+     */
+    public String graphName(EntityManager em, OrderFetchPlan fetchPlan) {
+        EnumSet<Part> graphParts = fetchPlan.graphParts();
+        if (graphParts.isEmpty()) {
+            return null;
+        }
+        String graphName = graphNames.get(graphParts);
+        if (graphName != null) {
+            hitCount.increment();
+            return graphName;
+        }
+        return graphNames.computeIfAbsent(graphParts, parts -> build(em, parts));
+    }
+
+    public FetchGraphStats getStats() {
+        return new FetchGraphStats(graphNames.size(), hitCount.sum(), buildCount.sum());
+    }
+
+    private String build(EntityManager em, EnumSet<Part> parts) {
+        EntityGraph<Order> graph = em.createEntityGraph(Order.class);
+        StringBuilder name = new StringBuilder(GRAPH_NAME_PREFIX);
+        for (Part part : parts) {
+            graph.addAttributeNodes(part.getAttribute());
+            name.append(part.getIncludeName()).append('+');
+        }
+        name.setLength(name.length() - 1);
+
+        String graphName = name.toString();
+        em.getEntityManagerFactory().addNamedEntityGraph(graphName, graph);
+        buildCount.increment();
+        log.debug("registered order fetch graph {}", graphName);
+        return graphName;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class FetchGraphStats {
+        private int graphs;
+        private long hitCount;
+        private long buildCount;
+    }
+}
@@ -0,0 +1,109 @@
+package jpabook.jpashop.repository;
+
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 조회 API 의 include 파라미터로 고르는 페치 계획
+ * 예) include=member,delivery,items,items.item
+ * - 허용 목록(Part)에 없는 이름이 오면 IllegalArgumentException (API 에서는 400 으로 바꿈)
+ * - to-one(member, delivery)은 엔티티 그래프로 주문과 조인해서 가져옴
+ * - to-many(items, items.item)는 조인하지 않고 @BatchSize 로 in 쿼리 -> 주문 쿼리의 limit/offset 이 DB 에서 그대로 걸림
+ */
+public final class OrderFetchPlan {
+
+    public enum Part {
+        MEMBER("member", "member", true),
+        DELIVERY("delivery", "delivery", true),
+        ITEMS("items", "orderItems", false),
+        ITEMS_ITEM("items.item", "item", false);
+
+        private final String includeName;
+        private final String attribute;
+        private final boolean toOne;
+
+        Part(String includeName, String attribute, boolean toOne) {
+            this.includeName = includeName;
+            this.attribute = attribute;
+            this.toOne = toOne;
+        }
+
+        public String getIncludeName() {
+            return includeName;
+        }
+
+        String getAttribute() {
+            return attribute;
+        }
+
+        boolean isToOne() {
+            return toOne;
+        }
+    }
+
+    private static final Map<String, Part> PARTS_BY_NAME = Arrays.stream(Part.values())
+            .collect(Collectors.toMap(Part::getIncludeName, Function.identity()));
+
+    public static final OrderFetchPlan NONE = new OrderFetchPlan(EnumSet.noneOf(Part.class));
+    public static final OrderFetchPlan ALL = new OrderFetchPlan(EnumSet.allOf(Part.class));
+
+    private final Set<Part> parts;
+
+    private OrderFetchPlan(EnumSet<Part> parts) {
+        this.parts = Collections.unmodifiableSet(parts);
+    }
+
+    public static OrderFetchPlan parse(String include) {
+        if (!StringUtils.hasText(include)) {
+            return NONE;
+        }
+        EnumSet<Part> parts = EnumSet.noneOf(Part.class);
+        for (String token : include.split(",")) {
+            String name = token.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            Part part = PARTS_BY_NAME.get(name);
+            if (part == null) {
+                throw new IllegalArgumentException("include 에 쓸 수 없는 값입니다: " + name + " (가능: " + PARTS_BY_NAME.keySet() + ")");
+            }
+            parts.add(part);
+        }
+        // 상품은 주문상품을 거쳐야 로딩할 수 있음
+        if (parts.contains(Part.ITEMS_ITEM)) {
+            parts.add(Part.ITEMS);
+        }
+        return new OrderFetchPlan(parts);
+    }
+
+    public boolean includes(Part part) {
+        return parts.contains(part);
+    }
+
+    public Set<Part> getParts() {
+        return parts;
+    }
+
+    // 엔티티 그래프에 넣을 to-one 부분 (그래프 캐시 키)
+    EnumSet<Part> graphParts() {
+        EnumSet<Part> graphParts = EnumSet.noneOf(Part.class);
+        for (Part part : parts) {
+            if (part.isToOne()) {
+                graphParts.add(part);
+            }
+        }
+        return graphParts;
+    }
+
+    @Override
+    public String toString() {
+        return parts.stream().map(Part::getIncludeName).collect(Collectors.joining(","));
+    }
+}
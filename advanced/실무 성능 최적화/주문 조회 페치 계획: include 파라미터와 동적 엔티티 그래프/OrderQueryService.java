@@ -0,0 +1,103 @@
+package jpabook.jpashop.service.query;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.OrderFetchPlan;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * OSIV 를 끈 상태(spring.jpa.open-in-view: false)의 엔티티 조회 API 용 서비스
+ * - OSIV 를 켜면 응답을 다 쓸 때까지(느린 클라이언트면 그만큼 오래) 커넥션을 잡고 있어서 커넥션 풀이 마름
+ * - 여기서는 응답에 필요한 것을 트랜잭션 안에서 전부 로딩하고 DTO 로 바꿔서 반환
+ *   트랜잭션이 끝나면 커넥션을 돌려주므로, 응답 쓰기는 커넥션 없이 진행됨
+ * - 메서드마다 무엇을 어떻게 로딩하는지(페치 계획)를 명시
+ *   회원/배송: 엔티티 그래프(Order.GRAPH_MEMBER_DELIVERY)로 주문과 조인
+ *   주문상품/상품: 트랜잭션 안에서 초기화, @BatchSize 로 in 쿼리 한 번씩
+ * - 엔티티를 그대로 돌려주는 V1 은 include 파라미터로 고른 페치 계획(OrderFetchPlan)을 따름
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderQueryService {
+
+    private final OrderRepository orderRepository;
+
+    /**
+     * 주문 엔티티 그대로 (주문 V1, 간단한 주문 V1)
+     * 페치 계획: include 파라미터(OrderFetchPlan), 빠진 연관관계는 직렬화 때 {id} 참조나 null 로 나감
+     */
+    public List<Order> findOrders(OrderSearch orderSearch, OrderFetchPlan fetchPlan) {
+        return orderRepository.findAllByString(orderSearch, fetchPlan);
+    }
+
+    /**
+     * 주문 엔티티 그대로 (주문 V1 페이징)
+     * 페치 계획: include 파라미터(OrderFetchPlan)
+     */
+    public List<Order> findOrders(OrderFetchPlan fetchPlan, int offset, int limit) {
+        return orderRepository.findAll(fetchPlan, offset, limit);
+    }
+
+    /**
+     * 주문 V2
+     * 페치 계획: 회원, 배송 조인 + DTO 변환 중 주문상품, 상품 배치 로딩
+     */
+    public List<OrderDto> findOrderDtos(OrderSearch orderSearch) {
+        return orderRepository.findAllByString(orderSearch, Order.GRAPH_MEMBER_DELIVERY).stream()
+                .map(OrderDto::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 간단한 주문 V2
+     * 페치 계획: 회원, 배송 조인
+     */
+    public List<SimpleOrderDto> findSimpleOrderDtos(OrderSearch orderSearch) {
+        return orderRepository.findAllByString(orderSearch, Order.GRAPH_MEMBER_DELIVERY).stream()
+                .map(SimpleOrderDto::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 주문 V3.1 (offset 페이징)
+     * 페치 계획: 주문 페이징 후 회원, 배송은 지연 로딩(1차 캐시에 없는 것만), 주문상품, 상품 배치 로딩
+     */
+    public List<OrderDto> findOrderDtos(int offset, int limit) {
+        return orderRepository.findAllWithMemberDelivery(offset, limit).stream()
+                .map(OrderDto::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 주문 V3.1 (키셋 페이징)
+     * 페치 계획: 회원, 배송 페치 조인 + 주문상품, 상품 배치 로딩
+     */
+    public OrderDtoPage findOrderDtos(OrderCursor cursor, int limit) {
+        List<Order> orders = orderRepository.findAllWithMemberDelivery(cursor, limit);
+        List<OrderDto> result = orders.stream()
+                .map(OrderDto::new)
+                .collect(Collectors.toList());
+
+        // limit 만큼 꽉 찼을 때만 다음 페이지가 있다고 보고 마지막 주문으로 커서를 만듦
+        String nextCursor = orders.size() == limit
+                ? OrderCursor.of(orders.get(orders.size() - 1)).encode()
+                : null;
+        return new OrderDtoPage(result, nextCursor);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class OrderDtoPage {
+        private List<OrderDto> orders;
+        private String nextCursor;
+    }
+}
@@ -0,0 +1,16 @@
+package jpabook.jpashop.monitoring;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컨트롤러 메서드 한 번 호출(응답 렌더링 포함)에 허용되는 SQL 개수
+ * - 넘으면 로그와 지표에 위반으로 남고, jpashop.query-budget.fail-on-violation=true 면 요청이 실패한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int max();
+}
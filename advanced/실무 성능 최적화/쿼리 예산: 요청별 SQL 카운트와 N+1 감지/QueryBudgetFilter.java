@@ -0,0 +1,106 @@
+package jpabook.jpashop.monitoring;
+
+import jpabook.jpashop.exception.QueryBudgetExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 요청 단위 SQL 예산 검사
+ * - 요청 시작 시 SqlStatementContext 를 열고, 응답까지 다 쓴 뒤(OSIV 지연 로딩 포함) 검사한다.
+ * - 같은 모양의 SQL 이 repeat-threshold 번 이상 나오면 N+1 의심으로 경고
+ * - @QueryBudget(max) 를 넘으면 위반으로 경고
+ * - 기본은 로그와 지표만 남기고, fail-on-violation=true 면 예외를 던져 요청을 실패시킨다. (통합 테스트에서 N+1 회귀를 잡을 때 사용)
+ *   응답이 커밋된 뒤에는 상태 코드를 바꿀 수 없으므로, 이때는 본문을 버퍼에 모아 두고 검사를 통과해야 내보낸다.
+ *   (스트리밍 응답도 전부 메모리에 모이므로 운영에서는 켜지 않음)
+ */
+@Slf4j
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final QueryBudgetMetrics metrics;
+    private final int repeatThreshold;
+    private final boolean failOnViolation;
+
+    public QueryBudgetFilter(QueryBudgetMetrics metrics,
+                             @Value("${jpashop.query-budget.repeat-threshold:5}") int repeatThreshold,
+                             @Value("${jpashop.query-budget.fail-on-violation:false}") boolean failOnViolation) {
+        this.metrics = metrics;
+        this.repeatThreshold = repeatThreshold;
+        this.failOnViolation = failOnViolation;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // 비동기 응답은 마지막 디스패치에서 버퍼에 모인 본문을 내보내야 함
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                copyBodyToResponse(response);
+            }
+            return;
+        }
+
+        HttpServletResponse target = failOnViolation ? new ContentCachingResponseWrapper(response) : response;
+        SqlStatementContext context = SqlStatementContext.begin();
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            SqlStatementContext.end();
+        }
+        if (context.getHandler() != null) {
+            // 위반이면 버퍼에 모인 본문은 버려지고, 아직 커밋되지 않은 응답에 오류가 나감
+            check(context);
+        }
+        if (!isAsyncStarted(request)) {
+            copyBodyToResponse(target);
+        }
+    }
+
+    private void copyBodyToResponse(HttpServletResponse response) throws IOException {
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper != null) {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void check(SqlStatementContext context) {
+        String handler = context.getHandler();
+        boolean repeated = false;
+        for (Map.Entry<String, Integer> shape : context.getShapeCounts().entrySet()) {
+            if (shape.getValue() >= repeatThreshold) {
+                repeated = true;
+                log.warn("[N+1 의심] {} 에서 같은 SQL 이 {}번 실행됨: {}", handler, shape.getValue(), shape.getKey());
+            }
+        }
+
+        QueryBudget budget = context.getBudget();
+        boolean overBudget = budget != null && context.getCount() > budget.max();
+        metrics.record(handler, context.getCount(), repeated, overBudget);
+
+        if (overBudget) {
+            String message = String.format("%s 쿼리 예산 초과: %d개 실행 (허용 %d개)", handler, context.getCount(), budget.max());
+            log.warn(message);
+            if (failOnViolation) {
+                throw new QueryBudgetExceededException(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package jpabook.jpashop.monitoring;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 어떤 컨트롤러 메서드가 요청을 처리하는지, @QueryBudget 이 붙어 있는지를 SqlStatementContext 에 알려줌
+ * - 검사 자체는 응답 렌더링(지연 로딩)까지 끝난 뒤 QueryBudgetFilter 에서 한다.
+ */
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementContext context = SqlStatementContext.current();
+        if (context != null && handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            context.attach(handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName(),
+                    handlerMethod.getMethodAnnotation(QueryBudget.class));
+        }
+        return true;
+    }
+}
@@ -0,0 +1,66 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 컨트롤러 메서드별 SQL 실행 지표
+ */
+@Component
+public class QueryBudgetMetrics {
+
+    private final ConcurrentMap<String, HandlerCounter> counters = new ConcurrentHashMap<>();
+
+    public void record(String handler, int statements, boolean repeated, boolean overBudget) {
+        HandlerCounter counter = counters.computeIfAbsent(handler, h -> new HandlerCounter());
+        counter.requests.increment();
+        counter.statements.add(statements);
+        counter.maxStatements.accumulate(statements);
+        if (repeated) {
+            counter.repeatedShapeRequests.increment();
+        }
+        if (overBudget) {
+            counter.budgetViolations.increment();
+        }
+    }
+
+    public List<HandlerStats> findAll() {
+        return counters.entrySet().stream()
+                .map(e -> e.getValue().toStats(e.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    private static class HandlerCounter {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Long::max, 0);
+        private final LongAdder repeatedShapeRequests = new LongAdder();
+        private final LongAdder budgetViolations = new LongAdder();
+
+        HandlerStats toStats(String handler) {
+            long requestCount = requests.sum();
+            return new HandlerStats(handler, requestCount,
+                    requestCount == 0 ? 0 : (double) statements.sum() / requestCount,
+                    maxStatements.get(), repeatedShapeRequests.sum(), budgetViolations.sum());
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class HandlerStats {
+        private String handler;
+        private long requests;
+        private double avgStatements;
+        private long maxStatements;
+        private long repeatedShapeRequests;
+        private long budgetViolations;
+    }
+}
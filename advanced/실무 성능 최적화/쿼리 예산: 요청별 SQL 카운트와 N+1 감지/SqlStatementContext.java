@@ -0,0 +1,79 @@
+package jpabook.jpashop.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 요청 하나 동안 실행된 SQL 기록 (요청 스레드 기준 ThreadLocal)
+ * - SQL 은 모양(shape) 기준으로 센다. 리터럴과 in 절 파라미터 개수를 지워서
+ *   findOrderItems 처럼 id 만 바꿔가며 반복 실행되는 쿼리(N+1)를 같은 모양으로 묶는다.
+ */
+public final class SqlStatementContext {
+
+    private static final ThreadLocal<SqlStatementContext> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern IN_LIST = Pattern.compile("in\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern STRING_LITERAL = Pattern.compile("'[^']*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private int count;
+    private final Map<String, Integer> shapeCounts = new LinkedHashMap<>();
+    private QueryBudget budget;
+    private String handler;
+
+    private SqlStatementContext() {
+    }
+
+    public static SqlStatementContext begin() {
+        SqlStatementContext context = new SqlStatementContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static SqlStatementContext current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    static void record(String sql) {
+        SqlStatementContext context = CURRENT.get();
+        if (context == null) {
+            return;  // 요청 밖(스케줄러, 초기화 등)에서 실행된 SQL 은 세지 않음
+        }
+        context.count++;
+        context.shapeCounts.merge(shapeOf(sql), 1, Integer::sum);
+    }
+
+    static String shapeOf(String sql) {
+        String shape = IN_LIST.matcher(sql).replaceAll("in (?)");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Map<String, Integer> getShapeCounts() {
+        return shapeCounts;
+    }
+
+    public QueryBudget getBudget() {
+        return budget;
+    }
+
+    public String getHandler() {
+        return handler;
+    }
+
+    void attach(String handler, QueryBudget budget) {
+        this.handler = handler;
+        this.budget = budget;
+    }
+}
@@ -0,0 +1,17 @@
+package jpabook.jpashop.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 하이버네이트가 실행하는 모든 SQL 을 현재 요청의 SqlStatementContext 에 기록
+ * - hibernate.session_factory.statement_inspector 로 등록 (스프링 빈이 아니라 하이버네이트가 직접 생성함)
+ * - SQL 은 바꾸지 않고 그대로 돌려준다.
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatementContext.record(sql);
+        return sql;
+    }
+}